@@ -0,0 +1,116 @@
+package com.resume.api;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Deterministic inputs shared by the benchmarks. PDFs are generated instead of checked in,
+ * so the corpus can be scaled by page count; HTML pages are saved fixtures.
+ */
+public final class BenchmarkFixtures {
+
+    private static final String[] SKILLS = {
+            "Java", "Spring Boot", "PostgreSQL", "Kafka", "Kubernetes", "AWS", "Docker", "REST APIs",
+            "React", "TypeScript", "Redis", "CI/CD", "Terraform", "gRPC", "Microservices", "JUnit"};
+
+    private static final int LINES_PER_PAGE = 55;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * A plain-text resume with the given number of positions, roughly one page each.
+     */
+    public static String resume(int positions) {
+        StringBuilder text = new StringBuilder("Jane Doe\nSenior Software Engineer\n\nSUMMARY\n")
+                .append("Engineer with a decade of experience building distributed backend systems.\n\n")
+                .append("EXPERIENCE\n");
+        for (int i = 0; i < positions; i++) {
+            text.append("Software Engineer, Company ").append(i).append(" (20").append(10 + i % 15).append(")\n");
+            for (int j = 0; j < 8; j++) {
+                text.append("- Built and operated services using ").append(SKILLS[(i + j) % SKILLS.length])
+                        .append(" and ").append(SKILLS[(i + 2 * j + 1) % SKILLS.length])
+                        .append(", improving latency and reliability for millions of requests per day.\n");
+            }
+        }
+        text.append("\nSKILLS\n").append(String.join(", ", SKILLS)).append('\n')
+                .append("\nEDUCATION\nB.Sc. Computer Science\n")
+                .append("\nINTERESTS\nChess, running, open source\n");
+        return text.toString();
+    }
+
+    public static String jobDescription() {
+        return """
+                Senior Backend Engineer
+
+                About us:
+                We are a fast-growing company building tools that help people find work they love.
+
+                Responsibilities:
+                - Design, build and operate Java and Spring Boot microservices
+                - Own services end to end, from design to on-call
+                - Mentor engineers and review code
+
+                Requirements:
+                - 5+ years of experience with Java, Spring Boot and PostgreSQL
+                - Experience with Kafka, Kubernetes and AWS
+                - Solid understanding of distributed systems and REST APIs
+
+                Nice to have:
+                - Terraform, gRPC, Redis
+
+                Benefits:
+                - Competitive salary, equity and a generous learning budget
+                """;
+    }
+
+    public static String html(String name) {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Unknown fixture: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a text-only PDF with {@code pages} full pages of resume-like lines.
+     */
+    public static Path pdf(int pages) throws IOException {
+        Path file = Files.createTempFile("benchmark-", ".pdf");
+        String[] lines = resume(pages).split("\n");
+        PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        try (PDDocument document = new PDDocument()) {
+            for (int page = 0; page < pages; page++) {
+                PDPage pdPage = new PDPage(PDRectangle.LETTER);
+                document.addPage(pdPage);
+                try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+                    content.beginText();
+                    content.setFont(font, 9);
+                    content.setLeading(12);
+                    content.newLineAtOffset(40, 740);
+                    for (int line = 0; line < LINES_PER_PAGE; line++) {
+                        content.showText(lines[(page * LINES_PER_PAGE + line) % lines.length]);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(file.toFile());
+        }
+        return file;
+    }
+}
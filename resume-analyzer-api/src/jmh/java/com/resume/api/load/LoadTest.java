@@ -0,0 +1,439 @@
+package com.resume.api.load;
+
+import com.resume.api.BenchmarkFixtures;
+import com.resume.api.ResumeAnalyzerApiApplication;
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.event.AnalysisStatusChangedEvent;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load test of the analysis pipeline on one machine: boots the application on
+ * the dev profile (in-memory H2) with OPENAI pointed at a {@link StubLlmServer}, submits
+ * analyses over HTTP at a target rate with open-loop arrivals, and reports throughput,
+ * queue wait and end-to-end latency percentiles. Status transitions are observed in-process
+ * from {@link AnalysisStatusChangedEvent}s, so latencies are exact rather than polled.
+ *
+ * <p>Run with {@code ./mvnw -Pbenchmark test-compile exec:exec@load-test -Dload.args="--rate=20 --duration=60"}.
+ * Options start with {@code --} (see {@link Options}); any other {@code key=value} argument is
+ * passed to the application, e.g. {@code analysis.worker.concurrency=16}, so a concurrency
+ * change can be compared run against run. The summary is also written as JSON to {@code --out}.
+ */
+public class LoadTest {
+
+    /**
+     * Harness options, each given as {@code --name=value}.
+     */
+    static final class Options {
+        double rate = 5;                        // analyses submitted per second
+        Duration duration = Duration.ofSeconds(60);
+        Duration drain = Duration.ofSeconds(120); // wait for stragglers after the last submission
+        String arrivals = "poisson";            // poisson or uniform
+        int resumes = 10;                       // uploaded before the run, analyses cycle through them
+        double uploadRate = 0;                  // further uploads per second during the run
+        int tenants = 1;                        // distinct API keys the analyses are spread over
+        double heavyShare = 0;                  // share of analyses sent by tenant 0, e.g. 0.8 for one heavy tenant
+        boolean streaming = false;
+        long latencyMedianMs = 800;             // stub generation latency
+        double latencySigma = 0.5;
+        double rate429 = 0;                     // share of stub calls answered with HTTP 429
+        String model = "gpt-4o-mini";
+        String out;
+        final Map<String, String> properties = new LinkedHashMap<>();
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    throw new IllegalArgumentException("Expected --option=value or property=value: " + arg);
+                }
+                String key = arg.substring(0, eq);
+                String value = arg.substring(eq + 1);
+                if (!key.startsWith("--")) {
+                    options.properties.put(key, value);
+                    continue;
+                }
+                switch (key.substring(2)) {
+                    case "rate" -> options.rate = Double.parseDouble(value);
+                    case "duration" -> options.duration = Duration.ofSeconds(Long.parseLong(value));
+                    case "drain" -> options.drain = Duration.ofSeconds(Long.parseLong(value));
+                    case "arrivals" -> options.arrivals = value;
+                    case "resumes" -> options.resumes = Integer.parseInt(value);
+                    case "upload-rate" -> options.uploadRate = Double.parseDouble(value);
+                    case "tenants" -> options.tenants = Integer.parseInt(value);
+                    case "heavy-share" -> options.heavyShare = Double.parseDouble(value);
+                    case "streaming" -> options.streaming = Boolean.parseBoolean(value);
+                    case "latency-median-ms" -> options.latencyMedianMs = Long.parseLong(value);
+                    case "latency-sigma" -> options.latencySigma = Double.parseDouble(value);
+                    case "rate-429" -> options.rate429 = Double.parseDouble(value);
+                    case "model" -> options.model = value;
+                    case "out" -> options.out = value;
+                    default -> throw new IllegalArgumentException("Unknown option: " + key);
+                }
+            }
+            if (options.rate <= 0 || options.resumes < 1 || options.tenants < 1) {
+                throw new IllegalArgumentException("rate must be positive, resumes and tenants at least 1");
+            }
+            return options;
+        }
+    }
+
+    /**
+     * One submitted analysis; times are System.nanoTime().
+     */
+    private static final class Submission {
+        final int tenant;
+        final long startedAt;
+        volatile long acceptedAt;
+        volatile UUID id;
+
+        Submission(int tenant, long startedAt) {
+            this.tenant = tenant;
+            this.startedAt = startedAt;
+        }
+    }
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([0-9a-fA-F-]{36})\"");
+
+    private final Options options;
+    private final HttpClient http;
+    private final ExecutorService clientExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "load-client");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Submission> submissions = new ArrayList<>();
+    private final List<Long> uploadLatencies = new ArrayList<>();
+    private final Map<UUID, Long> processingAt = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> finishedAt = new ConcurrentHashMap<>();
+    private final Map<UUID, AnalysisStatus> outcomes = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> rejected = new ConcurrentHashMap<>();
+    private final AtomicLong uploadErrors = new AtomicLong();
+    private final AtomicLong resumeCounter = new AtomicLong();
+    private String baseUrl;
+
+    LoadTest(Options options) {
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        StubLlmServer.Settings stubSettings = new StubLlmServer.Settings(
+                Duration.ofMillis(options.latencyMedianMs), options.latencySigma, options.rate429,
+                StubLlmServer.Settings.defaults().chunkTokens());
+        try (StubLlmServer stub = new StubLlmServer(0, stubSettings)) {
+            new LoadTest(options).run(stub);
+        }
+        System.exit(0);
+    }
+
+    void run(StubLlmServer stub) throws Exception {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.h2.console.enabled", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("analysis.ai.openai-base-url", stub.baseUrl());
+        properties.put("analysis.ai.streaming", String.valueOf(options.streaming));
+        properties.putAll(options.properties);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ResumeAnalyzerApiApplication.class)
+                .profiles("dev")
+                .properties(properties)
+                .listeners(this::onEvent)
+                .run()) {
+            baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+
+            List<UUID> resumeIds = new ArrayList<>();
+            for (int i = 0; i < options.resumes; i++) {
+                resumeIds.add(upload());
+            }
+            System.out.printf(Locale.ROOT, "Uploaded %d resumes, submitting %.1f analyses/s for %d s%n",
+                    resumeIds.size(), options.rate, options.duration.toSeconds());
+
+            Thread uploader = null;
+            if (options.uploadRate > 0) {
+                uploader = new Thread(() -> arrivals(options.uploadRate, n -> {
+                    try {
+                        upload();
+                    } catch (Exception e) {
+                        uploadErrors.incrementAndGet();
+                    }
+                }), "load-uploads");
+                uploader.start();
+            }
+            List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+            arrivals(options.rate, n -> inFlight.add(submit(n, resumeIds.get((int) (n % resumeIds.size())))));
+            if (uploader != null) {
+                uploader.join();
+            }
+            CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+
+            long drainUntil = System.nanoTime() + options.drain.toNanos();
+            while (unfinished() > 0 && System.nanoTime() < drainUntil) {
+                Thread.sleep(100);
+            }
+            report(stub);
+        }
+    }
+
+    /**
+     * Calls {@code action} with a running counter at {@code rate} per second for the
+     * configured duration. Arrivals are scheduled independently of how fast the server
+     * answers, so a slow server shows up as latency instead of a lower offered load.
+     */
+    private void arrivals(double rate, LongConsumer action) {
+        long start = System.nanoTime();
+        long end = start + options.duration.toNanos();
+        long next = start;
+        long n = 0;
+        while (true) {
+            double gap = "uniform".equals(options.arrivals)
+                    ? 1.0 / rate
+                    : -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) / rate;
+            next += (long) (gap * 1_000_000_000L);
+            if (next >= end) {
+                return;
+            }
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep / 1_000_000, (int) (sleep % 1_000_000));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            action.accept(n++);
+        }
+    }
+
+    private CompletableFuture<Void> submit(long n, UUID resumeId) {
+        int tenant = tenantFor(n);
+        String body = "{\"resumeId\":\"" + resumeId + "\",\"jobDescription\":"
+                + StubLlmServer.quote(BenchmarkFixtures.jobDescription() + "\nReference: LT-" + n)
+                + ",\"provider\":\"OPENAI\",\"apiKey\":\"load-test-key-" + tenant
+                + "\",\"model\":\"" + options.model + "\",\"skipCache\":true}";
+        Submission submission = new Submission(tenant, System.nanoTime());
+        synchronized (submissions) {
+            submissions.add(submission);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/analysis"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenAccept(response -> {
+                    submission.acceptedAt = System.nanoTime();
+                    if (response.statusCode() == 200) {
+                        submission.id = idOf(response.body());
+                    } else {
+                        rejected.computeIfAbsent(response.statusCode(), k -> new AtomicLong()).incrementAndGet();
+                    }
+                })
+                .exceptionally(e -> {
+                    rejected.computeIfAbsent(0, k -> new AtomicLong()).incrementAndGet();
+                    return null;
+                });
+    }
+
+    private int tenantFor(long n) {
+        if (options.tenants == 1) {
+            return 0;
+        }
+        if (options.heavyShare > 0 && ThreadLocalRandom.current().nextDouble() < options.heavyShare) {
+            return 0;
+        }
+        return options.heavyShare > 0
+                ? 1 + (int) (n % (options.tenants - 1))
+                : (int) (n % options.tenants);
+    }
+
+    private UUID upload() throws IOException, InterruptedException {
+        long i = resumeCounter.getAndIncrement();
+        String boundary = "load-test-" + UUID.randomUUID();
+        // Unique per upload, so deduplication by content hash does not short-circuit it
+        String content = BenchmarkFixtures.resume(3) + "\nLoad test resume " + i + "\n";
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"resume-" + i + ".txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n"
+                + content + "\r\n--" + boundary + "--\r\n";
+        long started = System.nanoTime();
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/resumes/upload"))
+                        .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                        .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - started;
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Upload failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        synchronized (uploadLatencies) {
+            uploadLatencies.add(elapsed);
+        }
+        return idOf(response.body());
+    }
+
+    private void onEvent(ApplicationEvent event) {
+        if (event instanceof PayloadApplicationEvent<?> payload
+                && payload.getPayload() instanceof AnalysisStatusChangedEvent change) {
+            long now = System.nanoTime();
+            if (change.status() == AnalysisStatus.PROCESSING) {
+                processingAt.putIfAbsent(change.analysisId(), now);
+            } else if (change.isTerminal()) {
+                finishedAt.putIfAbsent(change.analysisId(), now);
+                outcomes.putIfAbsent(change.analysisId(), change.status());
+            }
+        }
+    }
+
+    private long unfinished() {
+        synchronized (submissions) {
+            return submissions.stream()
+                    .filter(s -> s.acceptedAt == 0 || (s.id != null && !finishedAt.containsKey(s.id)))
+                    .count();
+        }
+    }
+
+    private void report(StubLlmServer stub) throws IOException {
+        List<Submission> all;
+        synchronized (submissions) {
+            all = new ArrayList<>(submissions);
+        }
+        long firstStart = all.stream().mapToLong(s -> s.startedAt).min().orElse(0);
+        long lastFinish = 0;
+        int complete = 0;
+        int error = 0;
+        Map<String, List<Long>> latencies = new LinkedHashMap<>();
+        Map<Integer, List<Long>> endToEndByTenant = new TreeMap<>();
+        for (Submission s : all) {
+            if (s.id == null) {
+                continue;
+            }
+            latencies.computeIfAbsent("submit", k -> new ArrayList<>()).add(s.acceptedAt - s.startedAt);
+            Long processing = processingAt.get(s.id);
+            if (processing != null) {
+                latencies.computeIfAbsent("queue wait", k -> new ArrayList<>()).add(processing - s.startedAt);
+            }
+            Long finished = finishedAt.get(s.id);
+            if (finished == null) {
+                continue;
+            }
+            if (outcomes.get(s.id) == AnalysisStatus.COMPLETE) {
+                complete++;
+                latencies.computeIfAbsent("end-to-end", k -> new ArrayList<>()).add(finished - s.startedAt);
+                endToEndByTenant.computeIfAbsent(s.tenant, k -> new ArrayList<>()).add(finished - s.startedAt);
+            } else {
+                error++;
+            }
+            lastFinish = Math.max(lastFinish, finished);
+        }
+        synchronized (uploadLatencies) {
+            if (!uploadLatencies.isEmpty()) {
+                latencies.put("upload", new ArrayList<>(uploadLatencies));
+            }
+        }
+        if (options.tenants > 1) {
+            endToEndByTenant.forEach((tenant, values) -> latencies.put("end-to-end tenant " + tenant, values));
+        }
+
+        double seconds = lastFinish > firstStart ? (lastFinish - firstStart) / 1e9 : 0;
+        double throughput = seconds > 0 ? complete / seconds : 0;
+        long rejectedTotal = rejected.values().stream().mapToLong(AtomicLong::get).sum();
+        long unfinished = all.size() - complete - error - rejectedTotal;
+
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "%nOffered %.1f analyses/s for %d s (%s arrivals), %d tenant(s), streaming=%s%n",
+                options.rate, options.duration.toSeconds(), options.arrivals, options.tenants, options.streaming));
+        text.append(String.format(Locale.ROOT, "Stub LLM: median %d ms, sigma %.2f, 429 share %.3f -> %d calls, %d throttled%n",
+                options.latencyMedianMs, options.latencySigma, options.rate429, stub.requests(), stub.throttled()));
+        text.append(String.format(Locale.ROOT, "Submitted %d: %d complete, %d error, %d rejected %s, %d unfinished%n",
+                all.size(), complete, error, rejectedTotal, rejected, unfinished));
+        text.append(String.format(Locale.ROOT, "Throughput: %.2f jobs/s, %d failed uploads%n%n", throughput, uploadErrors.get()));
+        text.append(String.format(Locale.ROOT, "%-22s %8s %10s %10s %10s %10s%n", "ms", "count", "p50", "p95", "p99", "max"));
+        StringBuilder json = new StringBuilder("{");
+        json.append(String.format(Locale.ROOT, "\"offeredRate\":%.3f,\"durationSeconds\":%d,\"tenants\":%d,\"streaming\":%s,",
+                options.rate, options.duration.toSeconds(), options.tenants, options.streaming));
+        json.append(String.format(Locale.ROOT, "\"submitted\":%d,\"complete\":%d,\"error\":%d,\"rejected\":%d,\"unfinished\":%d,",
+                all.size(), complete, error, rejectedTotal, unfinished));
+        json.append(String.format(Locale.ROOT, "\"throughput\":%.3f,\"uploadErrors\":%d,\"stubCalls\":%d,\"stubThrottled\":%d,\"properties\":{",
+                throughput, uploadErrors.get(), stub.requests(), stub.throttled()));
+        json.append(String.join(",", options.properties.entrySet().stream()
+                .map(e -> StubLlmServer.quote(e.getKey()) + ":" + StubLlmServer.quote(e.getValue())).toList()));
+        json.append("},\"latencyMillis\":{");
+        List<String> entries = new ArrayList<>();
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            long[] sorted = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            double p50 = percentileMillis(sorted, 0.50);
+            double p95 = percentileMillis(sorted, 0.95);
+            double p99 = percentileMillis(sorted, 0.99);
+            double max = percentileMillis(sorted, 1.0);
+            text.append(String.format(Locale.ROOT, "%-22s %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    entry.getKey(), sorted.length, p50, p95, p99, max));
+            entries.add(String.format(Locale.ROOT, "%s:{\"count\":%d,\"p50\":%.1f,\"p95\":%.1f,\"p99\":%.1f,\"max\":%.1f}",
+                    StubLlmServer.quote(entry.getKey()), sorted.length, p50, p95, p99, max));
+        }
+        json.append(String.join(",", entries)).append("}}");
+
+        System.out.print(text);
+        if (options.out != null) {
+            Path out = Path.of(options.out);
+            if (out.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(out.toAbsolutePath().getParent());
+            }
+            Files.writeString(out, json + "\n");
+            System.out.println("\nResult written to " + out);
+        }
+    }
+
+    static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static UUID idOf(String json) {
+        Matcher matcher = ID.matcher(json);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No id in response: " + json.substring(0, Math.min(200, json.length())));
+        }
+        return UUID.fromString(matcher.group(1));
+    }
+}
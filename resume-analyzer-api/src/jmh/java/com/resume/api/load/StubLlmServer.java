@@ -0,0 +1,248 @@
+package com.resume.api.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the OpenAI chat completions API, so the analysis pipeline can be
+ * loaded without paying for tokens or inheriting a provider's latency noise. Answers every
+ * {@code POST .../chat/completions} with a well-formed analysis after a lognormal delay,
+ * answers a configurable share of requests with HTTP 429, and streams the answer as
+ * server-sent chunks when the request asks for {@code "stream": true}.
+ *
+ * <p>Standalone: {@code java -cp ... com.resume.api.load.StubLlmServer [port] [medianMs] [sigma] [rate429]},
+ * then point {@code analysis.ai.openai-base-url} at {@code http://localhost:port/v1/}.
+ */
+public class StubLlmServer implements AutoCloseable {
+
+    /**
+     * @param median      median generation latency
+     * @param sigma       lognormal shape; 0 makes every call take exactly {@code median},
+     *                    0.5 already puts p99 at about 3x the median
+     * @param rate429     share of requests answered with HTTP 429
+     * @param chunkTokens approximate words per streamed chunk
+     */
+    public record Settings(Duration median, double sigma, double rate429, int chunkTokens) {
+
+        public static Settings defaults() {
+            return new Settings(Duration.ofMillis(800), 0.5, 0.0, 8);
+        }
+    }
+
+    private static final Pattern STREAM = Pattern.compile("\"stream\"\\s*:\\s*true");
+    private static final Pattern MODEL = Pattern.compile("\"model\"\\s*:\\s*\"([^\"]*)\"");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Settings settings;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong streamed = new AtomicLong();
+
+    public StubLlmServer(int port, Settings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 512);
+        // Every request sleeps; one thread each so the stub never becomes the bottleneck
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-llm");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port() + "/v1/";
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long throttled() {
+        return throttled.get();
+    }
+
+    public long streamed() {
+        return streamed.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod()) || !exchange.getRequestURI().getPath().endsWith("/chat/completions")) {
+                send(exchange, 404, "application/json", "{\"error\":{\"message\":\"Not found\"}}");
+                return;
+            }
+            String body = read(exchange.getRequestBody());
+            requests.incrementAndGet();
+
+            if (ThreadLocalRandom.current().nextDouble() < settings.rate429()) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, "application/json", "{\"error\":{\"message\":\"Rate limit reached (429)\","
+                        + "\"type\":\"rate_limit_exceeded\",\"code\":\"rate_limit_exceeded\"}}");
+                return;
+            }
+
+            Matcher model = MODEL.matcher(body);
+            String modelName = model.find() ? model.group(1) : "stub";
+            String content = analysis();
+            long latencyMillis = latencyMillis();
+            if (STREAM.matcher(body).find()) {
+                streamed.incrementAndGet();
+                stream(exchange, modelName, content, latencyMillis);
+            } else {
+                Thread.sleep(latencyMillis);
+                send(exchange, 200, "application/json", completion(modelName, content, body.length() / 4));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void stream(HttpExchange exchange, String model, String content, long latencyMillis)
+            throws IOException, InterruptedException {
+        String[] words = content.split("(?<= )");
+        int chunks = Math.max(1, (words.length + settings.chunkTokens() - 1) / settings.chunkTokens());
+        long pause = latencyMillis / (chunks + 1);
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        Thread.sleep(pause); // Time to first token
+        for (int i = 0; i < words.length; i += settings.chunkTokens()) {
+            StringBuilder piece = new StringBuilder();
+            for (int j = i; j < Math.min(words.length, i + settings.chunkTokens()); j++) {
+                piece.append(words[j]);
+            }
+            event(out, chunk(model, "{\"content\":" + quote(piece.toString()) + "}", null));
+            Thread.sleep(pause);
+        }
+        event(out, chunk(model, "{}", "\"stop\""));
+        event(out, "[DONE]");
+    }
+
+    private void event(OutputStream out, String data) throws IOException {
+        out.write(("data: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private long latencyMillis() {
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return Math.max(1, Math.round(settings.median().toMillis() * Math.exp(settings.sigma() * gaussian)));
+    }
+
+    private static String completion(String model, String content, int promptTokens) {
+        int completionTokens = content.length() / 4;
+        return "{\"id\":\"chatcmpl-stub\",\"object\":\"chat.completion\",\"created\":" + now()
+                + ",\"model\":" + quote(model)
+                + ",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":" + quote(content)
+                + "},\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":" + promptTokens
+                + ",\"completion_tokens\":" + completionTokens
+                + ",\"total_tokens\":" + (promptTokens + completionTokens) + "}}";
+    }
+
+    private static String chunk(String model, String delta, String finishReason) {
+        return "{\"id\":\"chatcmpl-stub\",\"object\":\"chat.completion.chunk\",\"created\":" + now()
+                + ",\"model\":" + quote(model)
+                + ",\"choices\":[{\"index\":0,\"delta\":" + delta + ",\"finish_reason\":" + finishReason + "}]}";
+    }
+
+    /**
+     * An answer in the shape the analysis prompt asks for, with scores that vary per call.
+     */
+    private static String analysis() {
+        Random random = ThreadLocalRandom.current();
+        int ats = 40 + random.nextInt(60);
+        return "{\"atsScore\": " + ats + ", \"recruiterScore\": " + (30 + random.nextInt(70))
+                + ", \"matchRatio\": \"" + ats + "%\""
+                + ", \"missingKeywords\": [\"Kubernetes\", \"Terraform\", \"gRPC\"]"
+                + ", \"matchingKeywords\": [\"Java\", \"Spring Boot\", \"PostgreSQL\", \"Kafka\"]"
+                + ", \"successProbability\": \"" + (ats > 75 ? "High" : ats > 55 ? "Medium" : "Low") + "\""
+                + ", \"summary\": \"Strong backend profile; infrastructure-as-code experience is missing.\""
+                + ", \"improvements\": [\"Quantify the impact of the Kafka migration\", \"Add Kubernetes projects\"]"
+                + ", \"preparationMaterials\": [{\"title\": \"Terraform basics\", \"link\": \"terraform tutorial\"}]"
+                + ", \"coverLetter\": \"Dear Hiring Manager, I am excited to apply for the Senior Backend Engineer role. "
+                + "Over the past decade I have built and operated distributed systems on Java and Spring Boot.\""
+                + ", \"tailoredResume\": \"# Jane Doe\\n## Experience\\n- Built event-driven services on Kafka\\n"
+                + "- Operated PostgreSQL at scale\"}";
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 16).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings defaults = Settings.defaults();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        Settings settings = new Settings(
+                args.length > 1 ? Duration.ofMillis(Long.parseLong(args[1])) : defaults.median(),
+                args.length > 2 ? Double.parseDouble(args[2]) : defaults.sigma(),
+                args.length > 3 ? Double.parseDouble(args[3]) : defaults.rate429(),
+                defaults.chunkTokens());
+        StubLlmServer stub = new StubLlmServer(port, settings);
+        System.out.println("Stub LLM listening on " + stub.baseUrl() + " with " + settings);
+        Thread.currentThread().join();
+    }
+}
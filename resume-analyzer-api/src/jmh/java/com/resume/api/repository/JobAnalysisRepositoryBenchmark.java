@@ -0,0 +1,144 @@
+package com.resume.api.repository;
+
+import com.resume.api.BenchmarkFixtures;
+import com.resume.api.ResumeAnalyzerApiApplication;
+import com.resume.api.dto.AnalysisSummary;
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.entity.Resume;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and status queries against the in-memory H2 database of the dev profile. PENDING
+ * rows are parked in the future so the application's recovery sweep never dispatches them,
+ * and spread over {@link #TENANTS} tenants so the fair claim has tenants to interleave.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JobAnalysisRepositoryBenchmark {
+
+    private static final AnalysisStatus[] STATUSES = AnalysisStatus.values();
+    private static final int TENANTS = 10;
+    // Defaults of analysis.scheduling.tenant-queue-limit and analysis.worker.queue-capacity
+    private static final int PER_TENANT = 8;
+    private static final int CLAIM_LIMIT = 50;
+
+    @Param({"1000", "10000"})
+    private int existingRows;
+
+    private ConfigurableApplicationContext context;
+    private JobAnalysisRepository jobAnalysisRepository;
+    private TransactionTemplate transaction;
+    private Resume resume;
+    private LocalDateTime parkedUntil;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ResumeAnalyzerApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("dev")
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "spring.h2.console.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        jobAnalysisRepository = context.getBean(JobAnalysisRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        resume = context.getBean(ResumeRepository.class).save(Resume.builder()
+                .filename("benchmark.pdf")
+                .content(BenchmarkFixtures.resume(3))
+                .build());
+
+        parkedUntil = LocalDateTime.now().plusYears(1);
+        List<JobAnalysis> rows = new ArrayList<>(existingRows);
+        for (int i = 0; i < existingRows; i++) {
+            JobAnalysis row = analysis(STATUSES[i % STATUSES.length]);
+            row.setTenant("tenant-" + i % TENANTS);
+            rows.add(row);
+        }
+        jobAnalysisRepository.saveAll(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public JobAnalysis save() {
+        return jobAnalysisRepository.save(analysis(AnalysisStatus.COMPLETE));
+    }
+
+    @Benchmark
+    public long countPending() {
+        return jobAnalysisRepository.countByStatus(AnalysisStatus.PENDING);
+    }
+
+    @Benchmark
+    public List<UUID> findFairDispatchableIds() {
+        return jobAnalysisRepository.findFairDispatchableIds(parkedUntil.plusDays(1), PER_TENANT, CLAIM_LIMIT);
+    }
+
+    /**
+     * The recovery sweep's claim: pick, lock and lease a batch in one transaction, as
+     * {@code AnalysisLeaseService.claimPending} does. Rolled back so the rows stay PENDING.
+     */
+    @Benchmark
+    public int claimPending() {
+        return transaction.execute(status -> {
+            LocalDateTime now = parkedUntil.plusDays(1);
+            List<UUID> ids = jobAnalysisRepository.lockPendingIds(
+                    jobAnalysisRepository.findFairDispatchableIds(now, PER_TENANT, CLAIM_LIMIT));
+            int claimed = jobAnalysisRepository.claimAll(ids, "benchmark", now.plusMinutes(2), now);
+            status.setRollbackOnly();
+            return claimed;
+        });
+    }
+
+    @Benchmark
+    public List<AnalysisSummary> historyFirstPage() {
+        return jobAnalysisRepository.findSummariesByResumeId(resume.getId(), PageRequest.of(0, 21));
+    }
+
+    private JobAnalysis analysis(AnalysisStatus status) {
+        String jobDescription = BenchmarkFixtures.jobDescription();
+        return JobAnalysis.builder()
+                .resume(resume)
+                .jobDescriptionEntry(jobDescription)
+                .jobDescriptionPreview(jobDescription.substring(0, 100))
+                .atsScore(status == AnalysisStatus.COMPLETE ? 80 : null)
+                .providerUsed("GEMINI")
+                .modelUsed("gemini-1.5-pro")
+                .status(status)
+                .nextAttemptAt(status == AnalysisStatus.PENDING ? parkedUntil : null)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.resume.api.service;
+
+import com.resume.api.BenchmarkFixtures;
+import com.resume.api.config.ResumeProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PdfExtractionBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int pages;
+
+    private Path pdf;
+    private ThreadPoolTaskExecutor pdfPageExecutor;
+    private PdfExtractionService pdfExtractionService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ResumeProperties properties = new ResumeProperties();
+        pdf = BenchmarkFixtures.pdf(pages);
+        pdfPageExecutor = new ThreadPoolTaskExecutor();
+        pdfPageExecutor.setCorePoolSize(properties.getPdf().getExtractionThreads());
+        pdfPageExecutor.setMaxPoolSize(properties.getPdf().getExtractionThreads());
+        pdfPageExecutor.initialize();
+        pdfExtractionService = new PdfExtractionService(properties, pdfPageExecutor, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pdfPageExecutor.shutdown();
+        Files.deleteIfExists(pdf);
+    }
+
+    @Benchmark
+    public String extractText() throws IOException {
+        return pdfExtractionService.extractTextFromPdf(pdf);
+    }
+}
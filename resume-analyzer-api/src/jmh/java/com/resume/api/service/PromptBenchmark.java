@@ -0,0 +1,62 @@
+package com.resume.api.service;
+
+import com.resume.api.BenchmarkFixtures;
+import com.resume.api.config.AnalysisProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt assembly, with and without the compaction stage in front of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PromptBenchmark {
+
+    /** Positions in the generated resume, roughly one page each. */
+    @Param({"2", "10"})
+    private int positions;
+
+    private String resumeText;
+    private String jobDescriptionText;
+    private PromptCompactor promptCompactor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resumeText = BenchmarkFixtures.resume(positions);
+        jobDescriptionText = BenchmarkFixtures.jobDescription();
+        promptCompactor = new PromptCompactor(new AnalysisProperties());
+    }
+
+    @Benchmark
+    public String constructPrompt() {
+        return AnalysisJobProcessor.constructPrompt(resumeText, jobDescriptionText);
+    }
+
+    @Benchmark
+    public String compactAndConstructGemini() {
+        PromptCompactor.CompactedInput input = promptCompactor.compact("GEMINI", "gemini-1.5-pro", resumeText, jobDescriptionText);
+        return AnalysisJobProcessor.constructPrompt(input.resumeText(), input.jobDescriptionText());
+    }
+
+    @Benchmark
+    public String compactAndConstructOpenAi() {
+        PromptCompactor.CompactedInput input = promptCompactor.compact("OPENAI", "gpt-4o", resumeText, jobDescriptionText);
+        return AnalysisJobProcessor.constructPrompt(input.resumeText(), input.jobDescriptionText());
+    }
+}
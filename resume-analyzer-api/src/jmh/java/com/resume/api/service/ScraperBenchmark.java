@@ -0,0 +1,49 @@
+package com.resume.api.service;
+
+import com.resume.api.BenchmarkFixtures;
+import com.resume.api.config.AnalysisProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and main-content extraction of saved job pages; no network involved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ScraperBenchmark {
+
+    @Param({"job-board.html", "careers-page.html"})
+    private String fixture;
+
+    private String html;
+    private ScraperService scraperService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        html = BenchmarkFixtures.html(fixture);
+        scraperService = new ScraperService(new AnalysisProperties(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public String parseAndExtract() {
+        return scraperService.extractText(Jsoup.parse(html, "https://jobs.example.com/"));
+    }
+}
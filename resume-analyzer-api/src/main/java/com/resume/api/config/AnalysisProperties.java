@@ -0,0 +1,282 @@
+package com.resume.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tuning knobs for the background analysis pipeline, bound from the {@code analysis.*} namespace.
+ */
+@Data
+@ConfigurationProperties(prefix = "analysis")
+public class AnalysisProperties {
+
+    private Worker worker = new Worker();
+
+    private Ai ai = new Ai();
+
+    private ResultCache resultCache = new ResultCache();
+
+    private ScrapeCache scrapeCache = new ScrapeCache();
+
+    private Events events = new Events();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private Retry retry = new Retry();
+
+    private Batch batch = new Batch();
+
+    private Prompt prompt = new Prompt();
+
+    private Metrics metrics = new Metrics();
+
+    private Search search = new Search();
+
+    private Scheduling scheduling = new Scheduling();
+
+    @Data
+    public static class Worker {
+        /** Number of analyses that may be in flight (scrape + LLM call) at the same time. */
+        private int concurrency = 4;
+
+        /** Claimed-but-not-started analyses that may wait for a free worker. */
+        private int queueCapacity = 50;
+
+        /**
+         * Delay between two recovery sweeps over PENDING rows that missed the in-process
+         * hand-off, in milliseconds.
+         */
+        private long recoveryIntervalMs = 30000;
+
+        /**
+         * How long a claimed analysis stays leased to its node without a heartbeat. Once it
+         * runs out, any node may put the analysis back to PENDING and run it again.
+         */
+        private Duration leaseDuration = Duration.ofMinutes(2);
+
+        /** Delay between two lease renewals for the analyses this node holds, in milliseconds. */
+        private long heartbeatIntervalMs = 20000;
+
+        /** Identifies this node as lease owner. Defaults to the host name plus a random suffix. */
+        private String nodeId;
+
+        /** Run workers on virtual threads. Requires a Java 21+ runtime. */
+        private boolean virtualThreads = false;
+    }
+
+    @Data
+    public static class Scheduling {
+        /**
+         * Analyses of one tenant this node takes on ahead of a free worker. The rest of a
+         * large submission waits in the database, so another tenant's new work is still
+         * taken on straight away.
+         */
+        private int tenantQueueLimit = 8;
+
+        /**
+         * Relative share of worker time per tenant, keyed by tenant name; unlisted tenants
+         * weigh 1. A tenant is named {@code key-} plus a hash of its API key, as returned in
+         * the analysis' {@code tenant} field. Only listed tenants get their own metric tags.
+         */
+        private Map<String, Double> tenantWeights = new HashMap<>();
+
+        /**
+         * Analyses that no worker started within this long are expired without an LLM call.
+         * A request can ask for a shorter wait. Unset waits indefinitely.
+         */
+        private Duration defaultMaxWait;
+    }
+
+    @Data
+    public static class Ai {
+        /**
+         * Generate through the providers' streaming APIs so partial output can be read
+         * while the model is still writing.
+         */
+        private boolean streaming = false;
+
+        /**
+         * Sends OPENAI requests to this OpenAI-compatible endpoint instead of api.openai.com,
+         * e.g. a local stub for load tests. Include the version path: {@code http://localhost:8089/v1/}.
+         */
+        private String openaiBaseUrl;
+
+        private ClientCache clientCache = new ClientCache();
+
+        private Hedge hedge = new Hedge();
+    }
+
+    @Data
+    public static class Hedge {
+        /**
+         * Send a second request when a non-streaming generation runs longer than usual for
+         * its provider and model; the first answer wins and the other call is cancelled.
+         */
+        private boolean enabled = false;
+
+        /** Latency percentile of recent calls after which the hedge is sent. */
+        private double percentile = 0.95;
+
+        /** Never hedge sooner than this, whatever the tracked percentile. */
+        private Duration minDelay = Duration.ofSeconds(5);
+
+        /** Recent calls per provider and model the percentile is taken over. */
+        private int window = 200;
+
+        /** Calls a provider and model needs before it is hedged at all. */
+        private int minSamples = 20;
+
+        /** Hedges allowed per call, e.g. 0.05 for at most one extra request in 20. */
+        private double maxRate = 0.05;
+
+        /** Unused hedge budget that may accumulate for a burst of slow calls. */
+        private double burst = 5;
+
+        /**
+         * Hedge to this provider instead of repeating the call. Needs its own API key, as
+         * the caller's key belongs to the primary provider; unset repeats the same call.
+         */
+        private String fallbackProvider;
+
+        private String fallbackModel;
+
+        private String fallbackApiKey;
+    }
+
+    @Data
+    public static class ClientCache {
+        /** Maximum number of provider/model/API-key clients kept alive. */
+        private long maxSize = 100;
+
+        /** Clients unused for this long are evicted and shut down. */
+        private Duration idleTimeout = Duration.ofMinutes(30);
+    }
+
+    @Data
+    public static class ResultCache {
+        private boolean enabled = true;
+
+        /** Maximum number of distinct resume/job/provider/model results kept. */
+        private long maxSize = 1000;
+
+        /** How long a finished result may be reused for an identical submission. */
+        private Duration ttl = Duration.ofHours(24);
+    }
+
+    @Data
+    public static class ScrapeCache {
+        /** Maximum number of scraped job postings kept. */
+        private long maxSize = 500;
+
+        /** Cached text is served without a network call for this long. */
+        private Duration revalidateAfter = Duration.ofMinutes(10);
+
+        /** After this long an entry is dropped instead of revalidated. */
+        private Duration maxAge = Duration.ofHours(24);
+    }
+
+    @Data
+    public static class Events {
+        /** Server-Sent Events connections are closed after this long; clients reconnect. */
+        private Duration timeout = Duration.ofMinutes(30);
+
+        /** Interval between heartbeat comments on open event streams, in milliseconds. */
+        private long heartbeatIntervalMs = 15000;
+
+        /**
+         * Interval at which open event streams check their analyses in the database, in
+         * milliseconds. Catches transitions made by another node, which publishes its events
+         * only locally.
+         */
+        private long pollIntervalMs = 2000;
+    }
+
+    @Data
+    public static class RateLimit {
+        /** Concurrent LLM calls allowed per provider and API key before any feedback. */
+        private double initialConcurrency = 4;
+
+        private double minConcurrency = 1;
+
+        private double maxConcurrency = 32;
+
+        /** Multiplier applied to the limit when the provider answers 429. */
+        private double backoffRatio = 0.5;
+
+        /** 429s within this window only lower the limit once. */
+        private Duration decreaseCooldown = Duration.ofSeconds(2);
+
+        /** Delay before retrying an analysis that found its key at the limit. */
+        private Duration deferDelay = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class Retry {
+        /** Throttled attempts before an analysis is marked ERROR. */
+        private int maxAttempts = 5;
+
+        private Duration baseDelay = Duration.ofSeconds(2);
+
+        private Duration maxDelay = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Prompt {
+        /** Strip boilerplate and trim resume and job description to their token budgets. */
+        private boolean compaction = true;
+
+        /** Token budget for the resume; lowest-priority sections are dropped first. */
+        private int resumeMaxTokens = 3000;
+
+        /** Token budget for the job description. */
+        private int jobDescriptionMaxTokens = 2000;
+    }
+
+    @Data
+    public static class Metrics {
+        /** Interval between refreshes of the PENDING/PROCESSING queue depth gauges, in milliseconds. */
+        private long queueDepthIntervalMs = 10000;
+
+        /**
+         * Models tagged by name on the latency and size metrics; any other model requested is
+         * tagged {@code other}, since the model name comes from the request.
+         */
+        private List<String> models = new ArrayList<>(List.of(
+                "gemini-1.5-pro", "gemini-1.5-flash", "gemini-2.0-flash", "gpt-4o", "gpt-4o-mini", "gpt-4.1",
+                "gpt-4.1-mini"));
+    }
+
+    @Data
+    public static class Search {
+        /**
+         * File the resume and analysis search indexes are saved to, so a restart only has to
+         * index what changed since. Unset keeps the indexes in memory only and rebuilds them
+         * from the database on startup.
+         */
+        private String snapshotPath;
+
+        /** Delay between two snapshots of changed indexes, in milliseconds. */
+        private long snapshotIntervalMs = 300000;
+
+        /**
+         * Delay between two reads of resumes and analyses changed since the last one, in
+         * milliseconds. Picks up work stored or completed by other nodes.
+         */
+        private long catchUpIntervalMs = 30000;
+    }
+
+    @Data
+    public static class Batch {
+        /** Job descriptions accepted in a single batch request. */
+        private int maxJobs = 25;
+
+        /** URLs of a batch scraped at the same time, shared by all batch requests. */
+        private int scrapeConcurrency = 4;
+    }
+}
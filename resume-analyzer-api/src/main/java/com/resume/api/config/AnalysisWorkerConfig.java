@@ -0,0 +1,57 @@
+package com.resume.api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AnalysisWorkerConfig {
+
+    /**
+     * Bounded pool that runs individual analyses. The dispatcher never hands it more than
+     * {@code concurrency + queueCapacity} jobs, so the queue cannot grow without limit.
+     */
+    @Bean(name = "analysisExecutor")
+    public ThreadPoolTaskExecutor analysisExecutor(AnalysisProperties properties) {
+        AnalysisProperties.Worker worker = properties.getWorker();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(worker.getConcurrency());
+        executor.setMaxPoolSize(worker.getConcurrency());
+        executor.setQueueCapacity(worker.getQueueCapacity());
+        executor.setThreadNamePrefix("analysis-");
+        executor.setVirtualThreads(worker.isVirtualThreads());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * Runs the primary and hedge request of hedged LLM calls. Each analysis worker uses at
+     * most two threads at a time, so the pool never needs to queue.
+     */
+    @Bean(name = "hedgeExecutor")
+    public ThreadPoolTaskExecutor hedgeExecutor(AnalysisProperties properties) {
+        AnalysisProperties.Worker worker = properties.getWorker();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2 * worker.getConcurrency());
+        executor.setMaxPoolSize(2 * worker.getConcurrency());
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("llm-call-");
+        executor.setVirtualThreads(worker.isVirtualThreads());
+        return executor;
+    }
+
+    /**
+     * Scrapes the URLs of a batch request in parallel. Shared by all batches so a large
+     * one cannot open more than {@code scrapeConcurrency} connections at once.
+     */
+    @Bean(name = "scrapeExecutor")
+    public ThreadPoolTaskExecutor scrapeExecutor(AnalysisProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getBatch().getScrapeConcurrency());
+        executor.setMaxPoolSize(properties.getBatch().getScrapeConcurrency());
+        executor.setThreadNamePrefix("scrape-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,40 @@
+package com.resume.api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ResumeProcessingConfig {
+
+    /**
+     * Strips page ranges of large PDFs in parallel. Shared by all uploads so a burst of
+     * big documents cannot claim more than {@code extractionThreads} cores.
+     */
+    @Bean(name = "pdfPageExecutor")
+    public ThreadPoolTaskExecutor pdfPageExecutor(ResumeProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPdf().getExtractionThreads());
+        executor.setMaxPoolSize(properties.getPdf().getExtractionThreads());
+        executor.setThreadNamePrefix("pdf-pages-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Runs background extraction of uploaded resumes, off the request threads. The queue is
+     * bounded; when it is full uploads are rejected with HTTP 429 instead of queueing more.
+     */
+    @Bean(name = "resumeExtractionExecutor")
+    public ThreadPoolTaskExecutor resumeExtractionExecutor(ResumeProperties properties) {
+        ResumeProperties.Extraction extraction = properties.getExtraction();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(extraction.getThreads());
+        executor.setMaxPoolSize(extraction.getThreads());
+        executor.setQueueCapacity(extraction.getQueueCapacity());
+        executor.setThreadNamePrefix("resume-extract-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
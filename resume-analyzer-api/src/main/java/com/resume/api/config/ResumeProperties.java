@@ -0,0 +1,67 @@
+package com.resume.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Limits and tuning for resume uploads, bound from the {@code resume.*} namespace.
+ */
+@Data
+@ConfigurationProperties(prefix = "resume")
+public class ResumeProperties {
+
+    private Pdf pdf = new Pdf();
+
+    private Extraction extraction = new Extraction();
+
+    @Data
+    public static class Pdf {
+        /** Uploads larger than this are rejected before PDFBox sees them. */
+        private DataSize maxSize = DataSize.ofMegabytes(10);
+
+        /** Documents with more pages are rejected before any text is stripped. */
+        private int maxPages = 100;
+
+        /** Heap PDFBox may use for decoded streams before spilling to a scratch file. */
+        private DataSize scratchMemory = DataSize.ofMegabytes(4);
+
+        /** Map the spooled file into memory instead of reading it through a buffer. */
+        private boolean memoryMapped = false;
+
+        /** Documents are split into ranges of this many pages that are stripped in parallel. */
+        private int pagesPerChunk = 10;
+
+        /** Threads shared by all uploads for page-range stripping. */
+        private int extractionThreads = 2;
+    }
+
+    @Data
+    public static class Extraction {
+        /** Uploads extracted in the background at the same time. */
+        private int threads = 2;
+
+        /** Background uploads that may wait for a free thread; beyond this uploads get HTTP 429. */
+        private int queueCapacity = 20;
+
+        /** Retry-After sent with HTTP 429 when the extraction queue is full. */
+        private Duration retryAfter = Duration.ofSeconds(10);
+
+        /**
+         * Extractions still running after this long are assumed lost with their node and
+         * are started again.
+         */
+        private Duration staleAfter = Duration.ofMinutes(5);
+
+        /** Delay between two sweeps for stale extractions, in milliseconds. */
+        private long recoveryIntervalMs = 60000;
+
+        /**
+         * How often an analysis waiting for its resume's extraction checks again, in case the
+         * extraction finished on another node.
+         */
+        private Duration analysisPollInterval = Duration.ofSeconds(15);
+    }
+}
@@ -1,15 +1,31 @@
 package com.resume.api.controller;
 
+import com.resume.api.dto.AnalysisSummary;
+import com.resume.api.dto.BatchProgress;
+import com.resume.api.dto.CursorPage;
+import com.resume.api.dto.SearchPage;
+import com.resume.api.entity.AnalysisPriority;
 import com.resume.api.entity.JobAnalysis;
 import com.resume.api.repository.JobAnalysisRepository;
+import com.resume.api.service.AnalysisEventStream;
+import com.resume.api.service.AnalysisResultStore;
 import com.resume.api.service.AnalysisService;
+import com.resume.api.service.AnalysisStreamBuffer;
+import com.resume.api.service.SearchService;
+import com.resume.api.util.ETags;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -20,6 +36,10 @@ public class AnalysisController {
 
     private final AnalysisService analysisService;
     private final JobAnalysisRepository jobAnalysisRepository;
+    private final AnalysisResultStore analysisResultStore;
+    private final AnalysisEventStream analysisEventStream;
+    private final AnalysisStreamBuffer analysisStreamBuffer;
+    private final SearchService searchService;
 
     /**
      * POST /api/analysis - Initiate analysis (returns immediately)
@@ -33,25 +53,138 @@ public class AnalysisController {
                 request.isUrl(),
                 request.getProvider(),
                 request.getApiKey(),
-                request.getModel());
+                request.getModel(),
+                request.isSkipCache(),
+                new AnalysisService.Scheduling(request.getPriority(), request.getMaxWaitSeconds()));
         return ResponseEntity.ok(analysis);
     }
 
+    /**
+     * POST /api/analysis/batch - Initiate one analysis per job description for a single resume
+     * Returns the batch ID and initial progress immediately; poll /batch/{batchId} for updates
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchProgress> analyzeBatch(@RequestBody BatchAnalysisRequest request) {
+        List<AnalysisService.BatchJob> jobs = request.getJobs() == null ? List.of() : request.getJobs().stream()
+                .map(job -> job == null ? null : new AnalysisService.BatchJob(job.getJobDescription(), job.isUrl()))
+                .toList();
+        List<JobAnalysis> analyses = analysisService.initiateBatch(
+                request.getResumeId(),
+                jobs,
+                request.getProvider(),
+                request.getApiKey(),
+                request.getModel(),
+                request.isSkipCache(),
+                new AnalysisService.Scheduling(request.getPriority(), request.getMaxWaitSeconds()));
+        UUID batchId = analyses.get(0).getBatchId();
+        return ResponseEntity.ok(BatchProgress.of(batchId, jobAnalysisRepository.findSummariesByBatchId(batchId)));
+    }
+
+    /**
+     * GET /api/analysis/batch/{batchId} - Aggregate progress of a batch and a summary per analysis
+     */
+    @GetMapping("/batch/{batchId}")
+    public ResponseEntity<BatchProgress> getBatch(@PathVariable UUID batchId) {
+        List<AnalysisSummary> analyses = jobAnalysisRepository.findSummariesByBatchId(batchId);
+        if (analyses.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(BatchProgress.of(batchId, analyses));
+    }
+
+    /**
+     * GET /api/analysis/search?q=terraform&field=missing - Completed analyses containing all query terms
+     * field narrows the search to the missing or matching keywords; best match first
+     */
+    @GetMapping("/search")
+    public SearchPage<AnalysisSummary> searchAnalyses(@RequestParam("q") String query,
+                                                      @RequestParam(required = false) String field,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        return searchService.searchAnalyses(query, field, page, limit);
+    }
+
     /**
      * GET /api/analysis/{id} - Get analysis status and results
      * Returns current status (PENDING, PROCESSING, COMPLETE, ERROR) and results if complete
+     * Pollers should send the returned ETag in If-None-Match: an unchanged analysis answers 304
+     * from a single summary lookup, without reading the row or its result
      */
     @GetMapping("/{id}")
-    public ResponseEntity<JobAnalysis> getAnalysis(@PathVariable UUID id) {
-        return ResponseEntity.of(jobAnalysisRepository.findById(id));
+    public ResponseEntity<JobAnalysis> getAnalysis(@PathVariable UUID id, WebRequest request) {
+        Optional<AnalysisSummary> version = jobAnalysisRepository.findSummaryById(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Sets the ETag header on the 200 as well, like /{id}/result
+        if (request.checkNotModified(etag(version.get().id(), version.get().updatedAt()))) {
+            return null; // 304, answered from the summary columns alone
+        }
+        return ResponseEntity.of(jobAnalysisRepository.findById(id).map(analysisResultStore::attach));
+    }
+
+    /**
+     * GET /api/analysis/{id}/result - Only the analysis result JSON of a single analysis
+     * Carries an ETag like /{id}; send it back in If-None-Match to get 304 until the analysis changes
+     */
+    @GetMapping(value = "/{id}/result", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getAnalysisResult(@PathVariable UUID id, WebRequest request) {
+        Optional<AnalysisSummary> version = jobAnalysisRepository.findSummaryById(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag(version.get().id(), version.get().updatedAt()))) {
+            return null;
+        }
+        return ResponseEntity.of(analysisResultStore.load(id));
+    }
+
+    /**
+     * GET /api/analysis/{id}/partial - Output generated so far while a streaming analysis runs
+     * Returns 404 once generation has finished; read /{id}/result instead
+     */
+    @GetMapping(value = "/{id}/partial", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getPartialResult(@PathVariable UUID id) {
+        return ResponseEntity.of(analysisStreamBuffer.snapshot(id));
+    }
+
+    /**
+     * GET /api/analysis/{id}/events - Server-Sent Events stream of status changes
+     * Sends the current status on connect, a "status" event per transition, "partial" events
+     * with streamed output (when streaming is enabled) and a single "result" event with the
+     * analysis JSON once COMPLETE, then closes the stream
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@PathVariable UUID id) {
+        return ResponseEntity.of(analysisEventStream.subscribe(id));
     }
 
     /**
      * GET /api/analysis/resume/{resumeId} - Get analysis history for a resume
+     * Newest-first summaries without the result JSON; fetch it per item via /{id}/result
      */
     @GetMapping("/resume/{resumeId}")
-    public List<JobAnalysis> getHistory(@PathVariable UUID resumeId) {
-        return jobAnalysisRepository.findByResumeIdOrderByCreatedAtDesc(resumeId);
+    public CursorPage<AnalysisSummary> getHistory(@PathVariable UUID resumeId,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageRequest firstRows = PageRequest.of(0, pageSize + 1);
+        List<AnalysisSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = jobAnalysisRepository.findSummariesByResumeId(resumeId, firstRows);
+        } else {
+            CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+            rows = jobAnalysisRepository.findSummariesByResumeIdAfter(resumeId, after.timestamp(), after.id(), firstRows);
+        }
+        return CursorPage.of(rows, pageSize, a -> new CursorPage.Cursor(a.createdAt(), a.id()));
+    }
+
+    /**
+     * Every change to an analysis moves updatedAt, so the ID and updatedAt version all of
+     * its representations.
+     */
+    private static String etag(UUID id, LocalDateTime updatedAt) {
+        return ETags.of("analysis", id, updatedAt);
     }
 
     @Data
@@ -62,5 +195,26 @@ public class AnalysisController {
         private String provider; // GEMINI or OPENAI
         private String apiKey;
         private String model;
+        private boolean skipCache; // force a fresh LLM call even if an identical result is cached
+        private AnalysisPriority priority; // HIGH, NORMAL (default) or LOW
+        private Long maxWaitSeconds; // expire instead of run if not started within this long
+    }
+
+    @Data
+    public static class BatchAnalysisRequest {
+        private UUID resumeId;
+        private List<BatchJobRequest> jobs;
+        private String provider; // GEMINI or OPENAI
+        private String apiKey;
+        private String model;
+        private boolean skipCache;
+        private AnalysisPriority priority;
+        private Long maxWaitSeconds;
+    }
+
+    @Data
+    public static class BatchJobRequest {
+        private String jobDescription; // text or url
+        private boolean isUrl;
     }
 }
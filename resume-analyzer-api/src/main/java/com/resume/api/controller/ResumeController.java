@@ -1,15 +1,25 @@
 package com.resume.api.controller;
 
+import com.resume.api.dto.CursorPage;
+import com.resume.api.dto.ResumeSummary;
+import com.resume.api.dto.SearchPage;
 import com.resume.api.entity.Resume;
+import com.resume.api.entity.ResumeStatus;
 import com.resume.api.repository.ResumeRepository;
-import com.resume.api.service.PdfExtractionService;
+import com.resume.api.service.ResumeService;
+import com.resume.api.service.SearchService;
+import com.resume.api.util.ETags;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -19,34 +29,93 @@ import java.util.UUID;
 public class ResumeController {
 
     private final ResumeRepository resumeRepository;
-    private final PdfExtractionService pdfExtractionService;
+    private final ResumeService resumeService;
+    private final SearchService searchService;
 
+    /**
+     * POST /api/resumes/upload - Store a resume; re-uploading the same file returns the existing resume,
+     * or extracts it again if its earlier extraction FAILED
+     * With async=true a PDF is returned as EXTRACTING (202) and its text extracted in the background;
+     * poll GET /api/resumes/{id} for READY. Answers 429 with Retry-After when extraction is saturated.
+     */
     @PostMapping("/upload")
-    public ResponseEntity<Resume> uploadResume(@RequestParam("file") MultipartFile file) throws IOException {
-        String content = "";
-        if (file.getOriginalFilename() != null && file.getOriginalFilename().toLowerCase().endsWith(".pdf")) {
-            content = pdfExtractionService.extractTextFromPdf(file.getInputStream());
-        } else {
-            // Assume text or docx (not impl yet) - just storing bytes as string for now if
-            // text
-            content = new String(file.getBytes());
+    public ResponseEntity<Resume> uploadResume(@RequestParam("file") MultipartFile file,
+                                               @RequestParam(defaultValue = "false") boolean async) throws IOException {
+        if (!async) {
+            return ResponseEntity.ok(resumeService.upload(file));
         }
-
-        Resume resume = Resume.builder()
-                .filename(file.getOriginalFilename())
-                .content(content)
-                .build();
-
-        return ResponseEntity.ok(resumeRepository.save(resume));
+        Resume resume = resumeService.uploadAsync(file);
+        return resume.getStatus() == ResumeStatus.EXTRACTING
+                ? ResponseEntity.accepted().body(resume)
+                : ResponseEntity.ok(resume);
     }
 
+    /**
+     * GET /api/resumes - Newest-first summaries without the extracted content
+     * Pass the returned nextCursor to fetch the following page
+     */
     @GetMapping
-    public List<Resume> getAllResumes() {
-        return resumeRepository.findAll();
+    public CursorPage<ResumeSummary> getAllResumes(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "20") int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        PageRequest firstRows = PageRequest.of(0, pageSize + 1);
+        List<ResumeSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = resumeRepository.findSummaries(firstRows);
+        } else {
+            CursorPage.Cursor after = CursorPage.Cursor.decode(cursor);
+            rows = resumeRepository.findSummariesAfter(after.timestamp(), after.id(), firstRows);
+        }
+        return CursorPage.of(rows, pageSize, r -> new CursorPage.Cursor(r.uploadDate(), r.id()));
+    }
+
+    /**
+     * GET /api/resumes/search?q=kubernetes - Resumes containing all query terms, best match first
+     */
+    @GetMapping("/search")
+    public SearchPage<ResumeSummary> searchResumes(@RequestParam("q") String query,
+                                                   @RequestParam(defaultValue = "0") int page,
+                                                   @RequestParam(defaultValue = "20") int limit) {
+        return searchService.searchResumes(query, page, limit);
     }
 
+    /**
+     * GET /api/resumes/{id} - A single resume with its extracted content
+     * Send the returned ETag in If-None-Match: an unchanged resume answers 304 without reading the content
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Resume> getResume(@PathVariable UUID id) {
+    public ResponseEntity<Resume> getResume(@PathVariable UUID id, WebRequest request) {
+        Optional<ResumeSummary> version = resumeRepository.findSummaryById(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Sets the ETag header on the 200 as well
+        if (request.checkNotModified(etag(version.get().id(), version.get().status()))) {
+            return null;
+        }
         return ResponseEntity.of(resumeRepository.findById(id));
     }
+
+    /**
+     * GET /api/resumes/{id}/content - Extracted text of a single resume
+     */
+    @GetMapping(value = "/{id}/content", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getResumeContent(@PathVariable UUID id, WebRequest request) {
+        Optional<ResumeSummary> version = resumeRepository.findSummaryById(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag(version.get().id(), version.get().status()))) {
+            return null;
+        }
+        return ResponseEntity.of(resumeRepository.findContentById(id));
+    }
+
+    /**
+     * A stored file never changes; only extraction moves a resume on, from EXTRACTING to
+     * READY or FAILED, so the ID and status version it.
+     */
+    private static String etag(UUID id, ResumeStatus status) {
+        return ETags.of("resume", id, status != null ? status : ResumeStatus.READY);
+    }
 }
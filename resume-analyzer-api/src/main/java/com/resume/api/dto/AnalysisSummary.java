@@ -0,0 +1,25 @@
+package com.resume.api.dto;
+
+import com.resume.api.entity.AnalysisStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Listing view of an analysis without the job description and the result artifact.
+ */
+public record AnalysisSummary(UUID id,
+                              UUID resumeId,
+                              String jobTitle,
+                              String companyName,
+                              String jobDescriptionPreview,
+                              String providerUsed,
+                              String modelUsed,
+                              Integer keywordScore,
+                              Integer atsScore,
+                              Integer recruiterScore,
+                              AnalysisStatus status,
+                              String errorMessage,
+                              LocalDateTime createdAt,
+                              LocalDateTime updatedAt) {
+}
@@ -0,0 +1,41 @@
+package com.resume.api.dto;
+
+import com.resume.api.entity.AnalysisPriority;
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.event.AnalysisSubmittedEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * What the worker queue needs to know about an analysis to schedule it, without loading
+ * the row. Rows written before tenants existed share the default tenant.
+ */
+public record AnalysisTicket(UUID id,
+                             String tenant,
+                             AnalysisPriority priority,
+                             LocalDateTime createdAt,
+                             LocalDateTime deadlineAt) {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    public AnalysisTicket {
+        tenant = tenant != null ? tenant : DEFAULT_TENANT;
+        priority = AnalysisPriority.orDefault(priority);
+        createdAt = createdAt != null ? createdAt : LocalDateTime.now();
+    }
+
+    public static AnalysisTicket of(JobAnalysis analysis) {
+        return new AnalysisTicket(analysis.getId(), analysis.getTenant(), analysis.getPriority(),
+                analysis.getCreatedAt(), analysis.getDeadlineAt());
+    }
+
+    public static AnalysisTicket of(AnalysisSubmittedEvent event) {
+        return new AnalysisTicket(event.analysisId(), event.tenant(), event.priority(),
+                event.createdAt(), event.deadlineAt());
+    }
+
+    public boolean expired(LocalDateTime now) {
+        return deadlineAt != null && deadlineAt.isBefore(now);
+    }
+}
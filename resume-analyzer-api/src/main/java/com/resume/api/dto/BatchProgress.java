@@ -0,0 +1,34 @@
+package com.resume.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Aggregate progress of a batch, with a summary per analysis in request order.
+ */
+public record BatchProgress(UUID batchId,
+                            int total,
+                            int pending,
+                            int processing,
+                            int complete,
+                            int error,
+                            boolean finished,
+                            List<AnalysisSummary> analyses) {
+
+    public static BatchProgress of(UUID batchId, List<AnalysisSummary> analyses) {
+        int pending = 0;
+        int processing = 0;
+        int complete = 0;
+        int error = 0;
+        for (AnalysisSummary analysis : analyses) {
+            switch (analysis.status()) {
+                case PENDING -> pending++;
+                case PROCESSING -> processing++;
+                case COMPLETE -> complete++;
+                case ERROR -> error++;
+            }
+        }
+        return new BatchProgress(batchId, analyses.size(), pending, processing, complete, error,
+                pending == 0 && processing == 0, analyses);
+    }
+}
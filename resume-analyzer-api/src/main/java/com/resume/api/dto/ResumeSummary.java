@@ -0,0 +1,12 @@
+package com.resume.api.dto;
+
+import com.resume.api.entity.ResumeStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Listing view of a resume without the extracted content.
+ */
+public record ResumeSummary(UUID id, String filename, ResumeStatus status, LocalDateTime uploadDate) {
+}
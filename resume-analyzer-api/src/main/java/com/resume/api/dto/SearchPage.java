@@ -0,0 +1,12 @@
+package com.resume.api.dto;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results. {@code total} counts all matches, not just this page.
+ */
+public record SearchPage<T>(List<Hit<T>> items, int total, int page, int limit) {
+
+    public record Hit<T>(T item, double score) {
+    }
+}
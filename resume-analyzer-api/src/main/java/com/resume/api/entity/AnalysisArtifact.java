@@ -0,0 +1,41 @@
+package com.resume.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Full LLM result of an analysis (cover letter, tailored resume, improvements, ...), kept out
+ * of {@link JobAnalysis} so loading or listing analyses never drags it along. Read it
+ * explicitly when the result itself is requested. For a URL input it also keeps the scraped
+ * job description the result was generated from, for search.
+ */
+@Entity
+@Table(name = "analysis_artifacts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnalysisArtifact {
+
+    @Id
+    private UUID analysisId; // Same ID as the JobAnalysis it belongs to
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = 10000000)
+    private String resultJson; // Deflate-compressed in the database
+
+    private Integer resultLength; // Uncompressed length in characters
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = 10000000)
+    private String jobDescriptionText; // Scraped page of a URL input, null for text inputs
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
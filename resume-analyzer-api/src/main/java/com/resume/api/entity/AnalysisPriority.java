@@ -0,0 +1,25 @@
+package com.resume.api.entity;
+
+/**
+ * Scheduling lane of an analysis within its tenant's share of the workers: a tenant's
+ * higher lanes start first, but no lane gives a tenant more than its share.
+ */
+public enum AnalysisPriority {
+    HIGH(4),      // Interactive, someone is watching
+    NORMAL(2),    // Default
+    LOW(1);       // Bulk or background work
+
+    private final int weight;
+
+    AnalysisPriority(int weight) {
+        this.weight = weight;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    public static AnalysisPriority orDefault(AnalysisPriority priority) {
+        return priority != null ? priority : NORMAL;
+    }
+}
@@ -1,5 +1,6 @@
 package com.resume.api.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,13 +11,21 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "job_analyses")
+@Table(name = "job_analyses", indexes = {
+        @Index(name = "idx_job_analyses_resume_created", columnList = "resume_id, createdAt, id"),
+        @Index(name = "idx_job_analyses_status_created", columnList = "status, createdAt"),
+        @Index(name = "idx_job_analyses_batch", columnList = "batchId, batchPosition")
+})
+@SqlResultSetMapping(name = JobAnalysis.ID_MAPPING, columns = @ColumnResult(name = "id", type = UUID.class))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class JobAnalysis {
 
+    // Native queries selecting only IDs use this, as H2 reports a uuid column as binary
+    public static final String ID_MAPPING = "JobAnalysis.id";
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -25,6 +34,10 @@ public class JobAnalysis {
     @JoinColumn(name = "resume_id", nullable = false)
     private Resume resume;
 
+    private UUID batchId; // Set when submitted as part of a batch
+
+    private Integer batchPosition; // Index of the job description within its batch request
+
     private String jobTitle;
     
     private String companyName;
@@ -33,9 +46,39 @@ public class JobAnalysis {
     @Column(length = 10000)
     private String jobDescriptionEntry; // The raw input (text, url, etc)
 
-    @Lob
-    @Column(columnDefinition = "TEXT")
-    private String analysisResultJson; // JSON string of the result
+    @Column(length = 200)
+    private String jobDescriptionPreview; // Leading part of the input, for listings without the LOB
+
+    @Transient
+    private String analysisResultJson; // Full result JSON; persisted compressed as an AnalysisArtifact
+
+    @Transient
+    @JsonIgnore
+    private String jobDescriptionText; // Scraped page of a URL input; persisted compressed as an AnalysisArtifact
+
+    private Integer atsScore; // Structured copy of the result's scores, readable without the artifact
+
+    private Integer recruiterScore;
+
+    @Column(length = 32)
+    private String matchRatio;
+
+    @Column(length = 32)
+    private String successProbability;
+
+    @Column(length = 2000)
+    private String matchingKeywords; // Comma-separated, from the LLM result
+
+    @Column(length = 2000)
+    private String missingKeywords; // Comma-separated, from the LLM result
+
+    private Integer keywordScore; // Local dictionary-based pre-score (0-100), set before the LLM call
+
+    @Column(length = 1000)
+    private String keywordMatches; // Comma-separated skill terms found in both documents
+
+    @Column(length = 1000)
+    private String keywordGaps; // Comma-separated skill terms of the job missing from the resume
 
     private String providerUsed; // "GEMINI" or "OPENAI"
     
@@ -44,6 +87,17 @@ public class JobAnalysis {
     @Column(length = 1000)
     private String apiKey; // Store API key for background processing
 
+    private Boolean skipCache; // Opt-out of reusing a cached result for identical input
+
+    @Column(length = 64)
+    private String tenant; // Fair-share scheduling group: a hash of the API key
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private AnalysisPriority priority; // Scheduling lane; null (rows before lanes existed) is NORMAL
+
+    private LocalDateTime deadlineAt; // Expired instead of run if no worker started it by then
+
     @Enumerated(EnumType.STRING)
     @Builder.Default
     private AnalysisStatus status = AnalysisStatus.PENDING;
@@ -51,6 +105,19 @@ public class JobAnalysis {
     @Column(columnDefinition = "TEXT")
     private String errorMessage; // Error details if status is ERROR
 
+    private Integer retryCount; // Attempts re-queued after the provider throttled us (HTTP 429)
+
+    private LocalDateTime nextAttemptAt; // Not dispatched again before this time
+
+    private LocalDateTime startedAt; // When a worker first began the analysis, past any deferrals
+
+    @JsonIgnore // Worker coordination only; renewed without touching updatedAt, which versions the API representation
+    @Column(length = 100)
+    private String leaseOwner; // Worker node processing the analysis; only set while PROCESSING
+
+    @JsonIgnore
+    private LocalDateTime leaseExpiresAt; // Renewed by the owner's heartbeat; reclaimed by any node once past
+
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -10,7 +10,10 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "resumes")
+@Table(name = "resumes", indexes = {
+        @Index(name = "idx_resumes_upload_date", columnList = "uploadDate, id"),
+        @Index(name = "uk_resumes_content_hash", columnList = "contentHash", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,9 +28,21 @@ public class Resume {
     private String filename;
 
     @Lob
-    @Column(nullable = false, length = 1000000) // Large text for resume content
+    @Column(nullable = false, length = 1000000) // Large text for resume content; empty while EXTRACTING
     private String content;
 
+    @Column(length = 64)
+    private String contentHash; // SHA-256 of the uploaded file, hex; identical uploads share one row
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private ResumeStatus status = ResumeStatus.READY; // Null for resumes stored before extraction went async
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage; // Why extraction failed if status is FAILED
+
     @Builder.Default
     private LocalDateTime uploadDate = LocalDateTime.now();
+
+    private LocalDateTime extractedAt; // When background extraction finished; null if stored with its text
 }
@@ -0,0 +1,32 @@
+package com.resume.api.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Raw bytes of an upload whose text is extracted in the background. Kept in the database
+ * so any node can run or resume the extraction; deleted once the resume is READY or FAILED.
+ */
+@Entity
+@Table(name = "resume_files")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumeFile {
+
+    @Id
+    private UUID resumeId; // Same ID as the Resume it belongs to
+
+    @Column(nullable = false, length = 20000000)
+    private byte[] data;
+
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
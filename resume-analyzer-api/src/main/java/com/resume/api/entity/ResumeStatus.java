@@ -0,0 +1,7 @@
+package com.resume.api.entity;
+
+public enum ResumeStatus {
+    EXTRACTING,   // Uploaded, text extraction queued or running
+    READY,        // Text extracted
+    FAILED        // The file could not be read
+}
@@ -0,0 +1,9 @@
+package com.resume.api.event;
+
+import java.util.UUID;
+
+/**
+ * A chunk of model output received while a streaming analysis is still generating.
+ */
+public record AnalysisOutputEvent(UUID analysisId, String chunk) {
+}
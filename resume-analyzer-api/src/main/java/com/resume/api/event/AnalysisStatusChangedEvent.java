@@ -0,0 +1,31 @@
+package com.resume.api.event;
+
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.entity.JobAnalysis;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published whenever an analysis changes status. The result JSON is only set once the
+ * analysis is COMPLETE.
+ */
+public record AnalysisStatusChangedEvent(UUID analysisId,
+                                         AnalysisStatus status,
+                                         String errorMessage,
+                                         String analysisResultJson,
+                                         LocalDateTime updatedAt) {
+
+    public static AnalysisStatusChangedEvent of(JobAnalysis analysis) {
+        return new AnalysisStatusChangedEvent(
+                analysis.getId(),
+                analysis.getStatus(),
+                analysis.getErrorMessage(),
+                analysis.getStatus() == AnalysisStatus.COMPLETE ? analysis.getAnalysisResultJson() : null,
+                analysis.getUpdatedAt());
+    }
+
+    public boolean isTerminal() {
+        return status == AnalysisStatus.COMPLETE || status == AnalysisStatus.ERROR;
+    }
+}
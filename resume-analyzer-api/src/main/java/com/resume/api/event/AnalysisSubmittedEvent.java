@@ -0,0 +1,27 @@
+package com.resume.api.event;
+
+import com.resume.api.entity.AnalysisPriority;
+import com.resume.api.entity.JobAnalysis;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published once a new PENDING analysis has been committed, so workers can pick it up
+ * without waiting for the recovery sweep. Carries what the scheduler orders work by.
+ */
+public record AnalysisSubmittedEvent(UUID analysisId,
+                                     String tenant,
+                                     AnalysisPriority priority,
+                                     LocalDateTime createdAt,
+                                     LocalDateTime deadlineAt) {
+
+    public static AnalysisSubmittedEvent of(JobAnalysis analysis) {
+        return new AnalysisSubmittedEvent(
+                analysis.getId(),
+                analysis.getTenant(),
+                analysis.getPriority(),
+                analysis.getCreatedAt(),
+                analysis.getDeadlineAt());
+    }
+}
@@ -0,0 +1,12 @@
+package com.resume.api.event;
+
+import com.resume.api.entity.ResumeStatus;
+
+import java.util.UUID;
+
+/**
+ * Published when background extraction of an uploaded resume finished, READY or FAILED,
+ * so analyses waiting for it can run right away.
+ */
+public record ResumeExtractedEvent(UUID resumeId, ResumeStatus status) {
+}
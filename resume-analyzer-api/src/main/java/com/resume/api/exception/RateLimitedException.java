@@ -0,0 +1,12 @@
+package com.resume.api.exception;
+
+/**
+ * The AI provider rejected a request with HTTP 429. Unlike other generation failures this
+ * is transient: the analysis is re-queued with backoff instead of being marked ERROR.
+ */
+public class RateLimitedException extends RuntimeException {
+
+    public RateLimitedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.resume.api.exception;
+
+import java.time.Duration;
+
+/**
+ * A bounded work queue is full. Answered with HTTP 429 and a Retry-After header so clients
+ * back off instead of piling more work onto the server.
+ */
+public class ServerBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServerBusyException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
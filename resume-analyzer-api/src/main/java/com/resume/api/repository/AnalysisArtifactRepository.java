@@ -0,0 +1,17 @@
+package com.resume.api.repository;
+
+import com.resume.api.entity.AnalysisArtifact;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AnalysisArtifactRepository extends JpaRepository<AnalysisArtifact, UUID> {
+
+    @Query("select a.jobDescriptionText from AnalysisArtifact a where a.analysisId = :id and a.jobDescriptionText is not null")
+    Optional<String> findJobDescriptionTextById(@Param("id") UUID id);
+}
@@ -1,15 +1,225 @@
 package com.resume.api.repository;
 
+import com.resume.api.dto.AnalysisSummary;
+import com.resume.api.dto.AnalysisTicket;
 import com.resume.api.entity.JobAnalysis;
 import com.resume.api.entity.AnalysisStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.UUID;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface JobAnalysisRepository extends JpaRepository<JobAnalysis, UUID> {
-    List<JobAnalysis> findByResumeIdOrderByCreatedAtDesc(UUID resumeId);
-    List<JobAnalysis> findByStatusOrderByCreatedAtAsc(AnalysisStatus status);
+    String SUMMARY_SELECT = "select new com.resume.api.dto.AnalysisSummary(a.id, a.resume.id, a.jobTitle, "
+            + "a.companyName, a.jobDescriptionPreview, a.providerUsed, a.modelUsed, a.keywordScore, a.atsScore, "
+            + "a.recruiterScore, a.status, a.errorMessage, a.createdAt, a.updatedAt) from JobAnalysis a ";
+
+    @Query(SUMMARY_SELECT + "where a.resume.id = :resumeId order by a.createdAt desc, a.id desc")
+    List<AnalysisSummary> findSummariesByResumeId(@Param("resumeId") UUID resumeId, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where a.resume.id = :resumeId "
+            + "and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id)) "
+            + "order by a.createdAt desc, a.id desc")
+    List<AnalysisSummary> findSummariesByResumeIdAfter(@Param("resumeId") UUID resumeId,
+                                                       @Param("createdAt") LocalDateTime createdAt,
+                                                       @Param("id") UUID id,
+                                                       Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where a.id = :id")
+    Optional<AnalysisSummary> findSummaryById(@Param("id") UUID id);
+
+    @Query(SUMMARY_SELECT + "where a.id in :ids")
+    List<AnalysisSummary> findSummariesByIds(@Param("ids") Collection<UUID> ids);
+
+    Slice<JobAnalysis> findByStatus(AnalysisStatus status, Pageable pageable);
+
+    Slice<JobAnalysis> findByStatusAndUpdatedAtAfter(AnalysisStatus status, LocalDateTime updatedAfter, Pageable pageable);
+
+    @Query(SUMMARY_SELECT + "where a.batchId = :batchId order by a.batchPosition asc")
+    List<AnalysisSummary> findSummariesByBatchId(@Param("batchId") UUID batchId);
+
+
+    long countByStatus(AnalysisStatus status);
+
+    String TICKET_SELECT = "select new com.resume.api.dto.AnalysisTicket(a.id, a.tenant, a.priority, "
+            + "a.createdAt, a.deadlineAt) from JobAnalysis a ";
+
+    @Query(TICKET_SELECT + "where a.resume.id = :resumeId and a.status = :status")
+    List<AnalysisTicket> findTicketsByResumeIdAndStatus(@Param("resumeId") UUID resumeId,
+                                                        @Param("status") AnalysisStatus status);
+
+    @Query(TICKET_SELECT + "where a.id in :ids")
+    List<AnalysisTicket> findTicketsByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("select a.tenant, count(a) from JobAnalysis a where a.status = :status group by a.tenant")
+    List<Object[]> countByTenant(@Param("status") AnalysisStatus status);
+
+    /**
+     * Picks up to {@code limit} dispatchable PENDING analyses round-robin across tenants: each
+     * tenant's first (by lane, then age), then each tenant's second, and so on, at most
+     * {@code perTenant} each. A tenant with a large backlog cannot fill the sweep by itself.
+     */
+    @NativeQuery(value = "select id from (select id, created_at, row_number() over (partition by coalesce(tenant, '') "
+            + "order by case priority when 'HIGH' then 0 when 'LOW' then 2 else 1 end, created_at) as tenant_rank "
+            + "from job_analyses where status = 'PENDING' "
+            + "and (next_attempt_at is null or next_attempt_at <= :now) "
+            + "and (deadline_at is null or deadline_at >= :now)) ranked "
+            + "where tenant_rank <= :perTenant order by tenant_rank, created_at limit :limit",
+            sqlResultSetMapping = JobAnalysis.ID_MAPPING)
+    List<UUID> findFairDispatchableIds(@Param("now") LocalDateTime now,
+                                       @Param("perTenant") int perTenant,
+                                       @Param("limit") int limit);
+
+    /**
+     * Locks those of {@code ids} that are still PENDING, skipping rows another node has
+     * locked, so concurrent sweeps on several nodes never pick the same analysis. Must run
+     * inside the transaction that then claims the returned rows.
+     */
+    @NativeQuery(value = "select id from job_analyses where id in (:ids) and status = 'PENDING' for update skip locked",
+            sqlResultSetMapping = JobAnalysis.ID_MAPPING)
+    List<UUID> lockPendingIds(@Param("ids") Collection<UUID> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update JobAnalysis a set a.status = com.resume.api.entity.AnalysisStatus.PROCESSING, "
+            + "a.leaseOwner = :owner, a.leaseExpiresAt = :expiresAt, a.updatedAt = :now where a.id in :ids")
+    int claimAll(@Param("ids") List<UUID> ids,
+                 @Param("owner") String owner,
+                 @Param("expiresAt") LocalDateTime expiresAt,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * Claims a single PENDING analysis for {@code owner}. Returns 0 when another worker
+     * claimed it first.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobAnalysis a set a.status = com.resume.api.entity.AnalysisStatus.PROCESSING, "
+            + "a.leaseOwner = :owner, a.leaseExpiresAt = :expiresAt, a.updatedAt = :now "
+            + "where a.id = :id and a.status = com.resume.api.entity.AnalysisStatus.PENDING")
+    int claim(@Param("id") UUID id,
+              @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update JobAnalysis a set a.leaseExpiresAt = :expiresAt where a.id in :ids and a.leaseOwner = :owner "
+            + "and a.status = com.resume.api.entity.AnalysisStatus.PROCESSING")
+    int renewLeases(@Param("ids") Collection<UUID> ids,
+                    @Param("owner") String owner,
+                    @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Puts PROCESSING rows whose lease ran out (their node crashed or hung) back to PENDING.
+     * Rows claimed before leases existed have none and count as expired once they have not
+     * been touched for {@code staleBefore}.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobAnalysis a set a.status = com.resume.api.entity.AnalysisStatus.PENDING, "
+            + "a.leaseOwner = null, a.leaseExpiresAt = null, a.updatedAt = :now "
+            + "where a.status = com.resume.api.entity.AnalysisStatus.PROCESSING and (a.leaseExpiresAt < :now "
+            + "or (a.leaseExpiresAt is null and a.updatedAt < :staleBefore))")
+    int reclaimExpired(@Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Hands a claimed analysis back to PENDING, e.g. when the local executor rejected it.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobAnalysis a set a.status = com.resume.api.entity.AnalysisStatus.PENDING, "
+            + "a.leaseOwner = null, a.leaseExpiresAt = null, a.updatedAt = :now "
+            + "where a.id = :id and a.leaseOwner = :owner and a.status = com.resume.api.entity.AnalysisStatus.PROCESSING")
+    int releaseLease(@Param("id") UUID id, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    /**
+     * The outcome writes below take effect only while {@code owner} still holds the lease,
+     * checked and written in one statement. They return 0 when the lease ran out and another
+     * node took the analysis over, whose claim and state must then be left alone.
+     */
+    String OWNED = " where a.id = :id and a.leaseOwner = :owner and a.status = com.resume.api.entity.AnalysisStatus.PROCESSING";
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobAnalysis a set a.status = com.resume.api.entity.AnalysisStatus.PENDING, "
+            + "a.leaseOwner = null, a.leaseExpiresAt = null, a.retryCount = :retryCount, "
+            + "a.nextAttemptAt = :nextAttemptAt, a.updatedAt = :now" + OWNED)
+    int requeueOwned(@Param("id") UUID id,
+                     @Param("owner") String owner,
+                     @Param("retryCount") Integer retryCount,
+                     @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                     @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobAnalysis a set a.status = com.resume.api.entity.AnalysisStatus.ERROR, "
+            + "a.leaseOwner = null, a.leaseExpiresAt = null, a.errorMessage = :message, a.updatedAt = :now" + OWNED)
+    int failOwned(@Param("id") UUID id,
+                  @Param("owner") String owner,
+                  @Param("message") String message,
+                  @Param("now") LocalDateTime now);
+
+    /**
+     * Sets the result columns of a COMPLETE analysis; runs in the caller's transaction, which
+     * also writes the artifact.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update JobAnalysis a set a.status = com.resume.api.entity.AnalysisStatus.COMPLETE, "
+            + "a.leaseOwner = null, a.leaseExpiresAt = null, a.errorMessage = null, "
+            + "a.atsScore = :atsScore, a.recruiterScore = :recruiterScore, a.matchRatio = :matchRatio, "
+            + "a.successProbability = :successProbability, a.matchingKeywords = :matchingKeywords, "
+            + "a.missingKeywords = :missingKeywords, a.updatedAt = :now" + OWNED)
+    int completeOwned(@Param("id") UUID id,
+                      @Param("owner") String owner,
+                      @Param("atsScore") Integer atsScore,
+                      @Param("recruiterScore") Integer recruiterScore,
+                      @Param("matchRatio") String matchRatio,
+                      @Param("successProbability") String successProbability,
+                      @Param("matchingKeywords") String matchingKeywords,
+                      @Param("missingKeywords") String missingKeywords,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Gives up on PENDING analyses nobody started before their deadline; returns how many.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update JobAnalysis a set a.status = com.resume.api.entity.AnalysisStatus.ERROR, "
+            + "a.errorMessage = :message, a.nextAttemptAt = null, a.updatedAt = :now "
+            + "where a.status = com.resume.api.entity.AnalysisStatus.PENDING and a.deadlineAt < :now")
+    int expireOverdue(@Param("now") LocalDateTime now, @Param("message") String message);
+
+    /**
+     * Stamps the first start of an analysis; 0 when it had started before, on any node.
+     */
+    @Transactional
+    @Modifying
+    @Query("update JobAnalysis a set a.startedAt = :now, a.updatedAt = :now where a.id = :id and a.startedAt is null")
+    int markStarted(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("update JobAnalysis a set a.keywordScore = :score, a.keywordMatches = :matches, a.keywordGaps = :gaps, "
+            + "a.updatedAt = :now where a.id = :id")
+    int updateKeywordScore(@Param("id") UUID id,
+                           @Param("score") Integer score,
+                           @Param("matches") String matches,
+                           @Param("gaps") String gaps,
+                           @Param("now") LocalDateTime now);
+
+    @Query("select count(a) > 0 from JobAnalysis a where a.id = :id and a.leaseOwner = :owner "
+            + "and a.status = com.resume.api.entity.AnalysisStatus.PROCESSING")
+    boolean holdsLease(@Param("id") UUID id, @Param("owner") String owner);
 }
@@ -0,0 +1,11 @@
+package com.resume.api.repository;
+
+import com.resume.api.entity.ResumeFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ResumeFileRepository extends JpaRepository<ResumeFile, UUID> {
+}
@@ -1,11 +1,83 @@
 package com.resume.api.repository;
 
+import com.resume.api.dto.ResumeSummary;
 import com.resume.api.entity.Resume;
+import com.resume.api.entity.ResumeStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ResumeRepository extends JpaRepository<Resume, UUID> {
+
+    @Query("select new com.resume.api.dto.ResumeSummary(r.id, r.filename, r.status, r.uploadDate) from Resume r "
+            + "order by r.uploadDate desc, r.id desc")
+    List<ResumeSummary> findSummaries(Pageable pageable);
+
+    @Query("select new com.resume.api.dto.ResumeSummary(r.id, r.filename, r.status, r.uploadDate) from Resume r "
+            + "where r.uploadDate < :uploadDate or (r.uploadDate = :uploadDate and r.id < :id) "
+            + "order by r.uploadDate desc, r.id desc")
+    List<ResumeSummary> findSummariesAfter(@Param("uploadDate") LocalDateTime uploadDate,
+                                           @Param("id") UUID id,
+                                           Pageable pageable);
+
+    Optional<Resume> findByContentHash(String contentHash);
+
+    @Query("select new com.resume.api.dto.ResumeSummary(r.id, r.filename, r.status, r.uploadDate) from Resume r "
+            + "where r.id = :id")
+    Optional<ResumeSummary> findSummaryById(@Param("id") UUID id);
+
+    @Query("select new com.resume.api.dto.ResumeSummary(r.id, r.filename, r.status, r.uploadDate) from Resume r "
+            + "where r.id in :ids")
+    List<ResumeSummary> findSummariesByIds(@Param("ids") Collection<UUID> ids);
+
+    Slice<Resume> findAllBy(Pageable pageable);
+
+    /**
+     * Resumes stored, or whose background extraction finished, after the given time.
+     */
+    @Query("select r from Resume r where r.uploadDate > :since or r.extractedAt > :since")
+    Slice<Resume> findChangedAfter(@Param("since") LocalDateTime since, Pageable pageable);
+
+    @Query("select r.content from Resume r where r.id = :id")
+    Optional<String> findContentById(@Param("id") UUID id);
+
+    @Query("select r.id from Resume r where r.status = com.resume.api.entity.ResumeStatus.EXTRACTING "
+            + "and r.uploadDate < :uploadedBefore")
+    List<UUID> findExtractingIdsUploadedBefore(@Param("uploadedBefore") LocalDateTime uploadedBefore);
+
+    /**
+     * Puts a resume whose extraction FAILED back to EXTRACTING. Returns 0 when it is no
+     * longer FAILED, e.g. because a concurrent upload of the same file restarted it first.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Resume r set r.status = com.resume.api.entity.ResumeStatus.EXTRACTING, r.errorMessage = null "
+            + "where r.id = :id and r.status = com.resume.api.entity.ResumeStatus.FAILED")
+    int restartExtraction(@Param("id") UUID id);
+
+    /**
+     * Stores the outcome of a background extraction. Returns 0 when another node already did.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Resume r set r.content = :content, r.status = :status, r.errorMessage = :errorMessage, "
+            + "r.extractedAt = :extractedAt "
+            + "where r.id = :id and r.status = com.resume.api.entity.ResumeStatus.EXTRACTING")
+    int finishExtraction(@Param("id") UUID id,
+                         @Param("content") String content,
+                         @Param("status") ResumeStatus status,
+                         @Param("errorMessage") String errorMessage,
+                         @Param("extractedAt") LocalDateTime extractedAt);
 }
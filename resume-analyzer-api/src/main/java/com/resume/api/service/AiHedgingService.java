@@ -0,0 +1,270 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.exception.RateLimitedException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuts the latency tail of non-streaming generations with hedged requests. Latencies are
+ * tracked per provider and model; a call still running after the configured percentile of
+ * recent calls gets a second request, to the same model or a fallback provider, and
+ * whichever answers first wins while the other is cancelled. Hedges draw on a budget that
+ * grows by {@code maxRate} per call, so a provider that slows down across the board costs
+ * at most that fraction in extra requests. A hedge also needs a slot in the concurrency
+ * limit of its own provider key, and its 429s lower that key's limit, never the primary's.
+ */
+@Service
+@Slf4j
+public class AiHedgingService {
+
+    private record Target(String provider, String apiKey, String model) {
+
+        String label() {
+            return (provider != null ? provider.toUpperCase() : "unknown") + ":" + (model != null ? model : "default");
+        }
+    }
+
+    /**
+     * The most recent successful latencies of one provider and model.
+     */
+    private static final class LatencyWindow {
+        private final long[] nanos;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.nanos = new long[Math.max(1, capacity)];
+        }
+
+        synchronized void record(long elapsed) {
+            nanos[next] = elapsed;
+            next = (next + 1) % nanos.length;
+            size = Math.min(size + 1, nanos.length);
+        }
+
+        synchronized Duration percentile(double percentile, int minSamples) {
+            if (size < minSamples || size == 0) {
+                return null;
+            }
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * size) - 1;
+            return Duration.ofNanos(sorted[Math.max(0, Math.min(size - 1, index))]);
+        }
+    }
+
+    private final AiService aiService;
+    private final ProviderRateLimiter providerRateLimiter;
+    private final AnalysisMetrics analysisMetrics;
+    private final AnalysisProperties.Hedge settings;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolTaskExecutor hedgeExecutor;
+    // Keyed like the metric tags, so unknown models share one window instead of adding one each
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private double budget;
+
+    public AiHedgingService(AiService aiService, ProviderRateLimiter providerRateLimiter,
+                            AnalysisMetrics analysisMetrics, AnalysisProperties analysisProperties,
+                            MeterRegistry meterRegistry,
+                            @Qualifier("hedgeExecutor") ThreadPoolTaskExecutor hedgeExecutor) {
+        this.aiService = aiService;
+        this.providerRateLimiter = providerRateLimiter;
+        this.analysisMetrics = analysisMetrics;
+        this.settings = analysisProperties.getAi().getHedge();
+        this.meterRegistry = meterRegistry;
+        this.hedgeExecutor = hedgeExecutor;
+    }
+
+    /**
+     * Same contract as {@link AiService#analyzeJob}; hedges the call when enabled.
+     */
+    public String analyzeJob(String provider, String apiKey, String modelName, String prompt) {
+        Target primary = new Target(provider, apiKey, modelName);
+        if (!settings.isEnabled()) {
+            return aiService.analyzeJob(provider, apiKey, modelName, prompt);
+        }
+
+        Duration hedgeAfter = hedgeDelay(primary);
+        addBudget();
+        CompletionService<String> calls = new ExecutorCompletionService<>(hedgeExecutor);
+        Future<String> primaryCall;
+        try {
+            primaryCall = calls.submit(() -> call(primary, prompt));
+        } catch (TaskRejectedException e) {
+            return call(primary, prompt);
+        }
+
+        Future<String> hedgeCall = null;
+        Target hedge = null;
+        try {
+            Future<String> done = hedgeAfter != null ? calls.poll(hedgeAfter.toNanos(), TimeUnit.NANOSECONDS) : null;
+            if (done == null && hedgeAfter != null) {
+                Target target = hedgeTarget(primary);
+                String limiterKey = providerRateLimiter.keyFor(target.provider(), target.apiKey());
+                if (!providerRateLimiter.tryAcquire(limiterKey)) {
+                    meterRegistry.counter("ai.hedge.requests", "target", metricKey(primary),
+                            "outcome", "rate_limited").increment();
+                } else if (takeBudget()) {
+                    try {
+                        hedgeCall = calls.submit(() -> limitedCall(target, limiterKey, prompt));
+                        hedge = target;
+                        log.info("{} call exceeded {} ms, hedging to {}", primary.label(),
+                                hedgeAfter.toMillis(), hedge.label());
+                        meterRegistry.counter("ai.hedge.requests", "target", metricKey(primary),
+                                "outcome", "sent").increment();
+                        cost(primary, prompt);
+                    } catch (TaskRejectedException e) {
+                        providerRateLimiter.release(limiterKey, ProviderRateLimiter.Outcome.FAILED);
+                        meterRegistry.counter("ai.hedge.requests", "target", metricKey(primary),
+                                "outcome", "no_thread").increment();
+                    }
+                } else {
+                    providerRateLimiter.release(limiterKey, ProviderRateLimiter.Outcome.FAILED);
+                    meterRegistry.counter("ai.hedge.requests", "target", metricKey(primary),
+                            "outcome", "over_budget").increment();
+                }
+            }
+
+            int outstanding = hedgeCall != null ? 2 : 1;
+            Throwable primaryFailure = null;
+            while (true) {
+                if (done == null) {
+                    done = calls.take();
+                }
+                try {
+                    String response = done.get();
+                    if (hedgeCall != null) {
+                        boolean hedgeWon = done == hedgeCall;
+                        (hedgeWon ? primaryCall : hedgeCall).cancel(true);
+                        meterRegistry.counter("ai.hedge.wins", "target", metricKey(primary),
+                                "winner", hedgeWon ? "hedge" : "primary").increment();
+                        if (hedgeWon) {
+                            log.info("Hedge to {} answered before {}", hedge.label(), primary.label());
+                        }
+                    }
+                    return response;
+                } catch (ExecutionException e) {
+                    if (done == primaryCall) {
+                        primaryFailure = e.getCause();
+                    }
+                    if (--outstanding == 0) {
+                        // Only the primary's failure goes to the caller, whose rate limit is the primary key's
+                        Throwable failure = primaryFailure != null ? primaryFailure : e.getCause();
+                        throw failure instanceof RuntimeException runtime
+                                ? runtime
+                                : new RuntimeException("AI Generation failed: " + failure.getMessage(), failure);
+                    }
+                    // One call failed, the other may still answer
+                    done = null;
+                }
+            }
+        } catch (InterruptedException e) {
+            primaryCall.cancel(true);
+            if (hedgeCall != null) {
+                hedgeCall.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("AI Generation interrupted");
+        }
+    }
+
+    /**
+     * One side of the race. Cancelling it closes its HTTP call. Calls that failed or lost
+     * are recorded too, at the time they ran: the real latency was at least that, and
+     * leaving them out would make a slow provider look fast and hedge too late.
+     */
+    private String call(Target target, String prompt) {
+        long started = System.nanoTime();
+        try {
+            return aiService.analyzeJobCancellable(target.provider(), target.apiKey(), target.model(), prompt);
+        } finally {
+            latencies.computeIfAbsent(metricKey(target), k -> new LatencyWindow(settings.getWindow()))
+                    .record(System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * A hedge, holding the concurrency slot taken for its provider key until it ends.
+     */
+    private String limitedCall(Target target, String limiterKey, String prompt) {
+        ProviderRateLimiter.Outcome outcome = ProviderRateLimiter.Outcome.FAILED;
+        try {
+            String response = call(target, prompt);
+            outcome = ProviderRateLimiter.Outcome.SUCCESS;
+            return response;
+        } catch (RateLimitedException e) {
+            outcome = ProviderRateLimiter.Outcome.THROTTLED;
+            throw e;
+        } finally {
+            providerRateLimiter.release(limiterKey, outcome);
+        }
+    }
+
+    /**
+     * The tracked percentile of recent calls, floored at {@code minDelay}; null while there
+     * are too few samples to hedge on.
+     */
+    private Duration hedgeDelay(Target target) {
+        LatencyWindow window = latencies.get(metricKey(target));
+        Duration tracked = window != null ? window.percentile(settings.getPercentile(), settings.getMinSamples()) : null;
+        if (tracked == null) {
+            return null;
+        }
+        return tracked.compareTo(settings.getMinDelay()) > 0 ? tracked : settings.getMinDelay();
+    }
+
+    /**
+     * Provider and model as a bounded tag value; both come from the request.
+     */
+    private String metricKey(Target target) {
+        return AnalysisMetrics.providerTag(target.provider()) + ":" + analysisMetrics.modelTag(target.model());
+    }
+
+    private Target hedgeTarget(Target primary) {
+        if (settings.getFallbackProvider() != null && settings.getFallbackApiKey() != null) {
+            return new Target(settings.getFallbackProvider(), settings.getFallbackApiKey(), settings.getFallbackModel());
+        }
+        return primary;
+    }
+
+    private synchronized void addBudget() {
+        budget = Math.min(settings.getBurst(), budget + settings.getMaxRate());
+    }
+
+    private synchronized boolean takeBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget -= 1;
+        return true;
+    }
+
+    /**
+     * What a hedge costs on top of the primary call: the prompt is billed again even when
+     * the hedge loses and is cancelled.
+     */
+    private void cost(Target primary, String prompt) {
+        DistributionSummary.builder("ai.hedge.prompt.size")
+                .description("Prompt characters sent again by hedged requests")
+                .baseUnit("characters")
+                .tag("target", metricKey(primary))
+                .register(meterRegistry)
+                .record(prompt.length());
+    }
+}
@@ -1,17 +1,71 @@
 package com.resume.api.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.exception.RateLimitedException;
+import com.resume.api.util.Hashing;
+import dev.ai4j.openai4j.OpenAiClient;
+import dev.ai4j.openai4j.OpenAiHttpException;
+import dev.ai4j.openai4j.ResponseHandle;
+import dev.ai4j.openai4j.chat.ChatCompletionRequest;
+import dev.ai4j.openai4j.chat.ChatCompletionResponse;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.lang.reflect.Field;
 import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 public class AiService {
 
+    private static final Duration GENERATION_TIMEOUT = Duration.ofSeconds(120);
+
+    /**
+     * Identifies a reusable client. The API key is only kept as a hash so the
+     * cache key can be logged or exported without leaking credentials.
+     */
+    private record ClientKey(String provider, String modelName, String apiKeyHash) {
+    }
+
+    private final Cache<ClientKey, ChatLanguageModel> clientCache;
+    private final Cache<ClientKey, StreamingChatLanguageModel> streamingClientCache;
+    private final MeterRegistry meterRegistry;
+    private final String openaiBaseUrl;
+
+    public AiService(AnalysisProperties analysisProperties, MeterRegistry meterRegistry) {
+        AnalysisProperties.ClientCache settings = analysisProperties.getAi().getClientCache();
+        this.openaiBaseUrl = analysisProperties.getAi().getOpenaiBaseUrl();
+        if (openaiBaseUrl != null) {
+            log.warn("OPENAI requests go to {}", openaiBaseUrl);
+        }
+        this.clientCache = buildClientCache(settings);
+        this.streamingClientCache = buildClientCache(settings);
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, clientCache, "ai.client.cache");
+        CaffeineCacheMetrics.monitor(meterRegistry, streamingClientCache, "ai.streaming.client.cache");
+    }
+
     public String analyzeJob(String provider, String apiKey, String modelName, String prompt) {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             throw new IllegalArgumentException("API Key is required for provider: " + provider);
@@ -19,25 +73,8 @@ public class AiService {
 
         ChatLanguageModel chatModel;
         try {
-            log.info("Initializing AI Model. Provider: {}, Model: {}", provider, modelName);
-
-            if ("GEMINI".equalsIgnoreCase(provider)) {
-                chatModel = GoogleAiGeminiChatModel.builder()
-                        .apiKey(apiKey)
-                        .modelName(modelName != null && !modelName.isEmpty() ? modelName : "gemini-1.5-pro")
-                        .temperature(0.7)
-                        .timeout(Duration.ofSeconds(120))
-                        .build();
-            } else if ("OPENAI".equalsIgnoreCase(provider)) {
-                chatModel = OpenAiChatModel.builder()
-                        .apiKey(apiKey)
-                        .modelName(modelName != null && !modelName.isEmpty() ? modelName : "gpt-4o")
-                        .temperature(0.7)
-                        .timeout(Duration.ofSeconds(120))
-                        .build();
-            } else {
-                throw new IllegalArgumentException("Unsupported provider: " + provider);
-            }
+            ClientKey key = clientKey(provider, apiKey, modelName);
+            chatModel = clientCache.get(key, k -> createChatModel(k, apiKey));
         } catch (Exception e) {
             log.error("Failed to initialize AI model for provider: {}", provider, e);
             throw new RuntimeException("Failed to initialize AI provider: " + e.getMessage());
@@ -49,16 +86,288 @@ public class AiService {
             log.info("Received response from AI provider (length: {})", response != null ? response.length() : 0);
             return response;
         } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted()) {
+                // Cancelled by the caller, e.g. the losing side of a hedged request
+                throw new CancellationException("AI generation cancelled");
+            }
             log.error("Error during AI generation. Provider: {}", provider, e);
-            // Check for common errors usually wrapped in runtime exceptions by LangChain4j
-            if (e.getMessage().contains("401")) {
-                throw new RuntimeException("Authentication failed (401). Please check your API Key.");
-            } else if (e.getMessage().contains("429")) {
-                throw new RuntimeException("Rate limit exceeded (429). Please try again later.");
-            } else if (e.getMessage().contains("quota")) {
-                throw new RuntimeException("Quota exceeded. Please check your billing/usage.");
+            throw translateError(provider, e);
+        }
+    }
+
+    /**
+     * Same contract as {@link #analyzeJob}, for callers that may abandon the call, like the
+     * losing side of a hedged request: interrupting the calling thread closes the HTTP call
+     * instead of leaving it running until the provider finishes. The JDK client behind the
+     * Gemini models aborts on interrupt by itself. OpenAI's OkHttp client ignores interrupts,
+     * so OpenAI calls go through the streaming endpoint, whose handle closes the connection
+     * at the next chunk once cancelled.
+     */
+    public String analyzeJobCancellable(String provider, String apiKey, String modelName, String prompt) {
+        if (!"OPENAI".equalsIgnoreCase(provider)) {
+            return analyzeJob(provider, apiKey, modelName, prompt);
+        }
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            throw new IllegalArgumentException("API Key is required for provider: " + provider);
+        }
+
+        ClientKey key;
+        OpenAiClient client;
+        try {
+            key = clientKey(provider, apiKey, modelName);
+            client = openAiClient(streamingClientCache.get(key, k -> createStreamingChatModel(k, apiKey)));
+        } catch (Exception e) {
+            log.error("Failed to initialize streaming AI model for provider: {}", provider, e);
+            throw new RuntimeException("Failed to initialize AI provider: " + e.getMessage());
+        }
+        if (client == null) {
+            return analyzeJob(provider, apiKey, modelName, prompt);
+        }
+
+        CompletableFuture<String> completion = new CompletableFuture<>();
+        StringBuilder received = new StringBuilder();
+        log.info("Sending cancellable request to AI provider...");
+        ResponseHandle handle = client.chatCompletion(ChatCompletionRequest.builder()
+                        .model(key.modelName())
+                        .addUserMessage(prompt)
+                        .temperature(0.7)
+                        .build())
+                .onPartialResponse(partial -> received.append(deltaOf(partial)))
+                .onComplete(() -> completion.complete(received.toString()))
+                .onError(completion::completeExceptionally)
+                .execute();
+        try {
+            String response = completion.get(GENERATION_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            log.info("Received response from AI provider (length: {})", response.length());
+            return response;
+        } catch (InterruptedException e) {
+            handle.cancel();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("AI generation cancelled");
+        } catch (TimeoutException e) {
+            handle.cancel();
+            countError(provider, "timeout");
+            throw new RuntimeException("AI Generation timed out after " + GENERATION_TIMEOUT.toSeconds() + "s");
+        } catch (ExecutionException e) {
+            log.error("Error during AI generation. Provider: {}", provider, e.getCause());
+            throw translateError(provider, e.getCause());
+        }
+    }
+
+    /**
+     * Same contract as {@link #analyzeJob}, but generates through the provider's streaming API
+     * and hands every token to {@code onToken} as it arrives. Blocks until the response is
+     * complete and returns the full text.
+     */
+    public String analyzeJobStreaming(String provider, String apiKey, String modelName, String prompt,
+                                      Consumer<String> onToken) {
+        if (apiKey == null || apiKey.trim().isEmpty()) {
+            throw new IllegalArgumentException("API Key is required for provider: " + provider);
+        }
+
+        StreamingChatLanguageModel chatModel;
+        try {
+            ClientKey key = clientKey(provider, apiKey, modelName);
+            chatModel = streamingClientCache.get(key, k -> createStreamingChatModel(k, apiKey));
+        } catch (Exception e) {
+            log.error("Failed to initialize streaming AI model for provider: {}", provider, e);
+            throw new RuntimeException("Failed to initialize AI provider: " + e.getMessage());
+        }
+
+        CompletableFuture<String> completion = new CompletableFuture<>();
+        StringBuilder received = new StringBuilder();
+        try {
+            log.info("Sending streaming request to AI provider...");
+            chatModel.generate(prompt, new StreamingResponseHandler<AiMessage>() {
+                @Override
+                public void onNext(String token) {
+                    received.append(token);
+                    onToken.accept(token);
+                }
+
+                @Override
+                public void onComplete(Response<AiMessage> response) {
+                    String text = response != null && response.content() != null
+                            ? response.content().text()
+                            : received.toString();
+                    completion.complete(text);
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    completion.completeExceptionally(error);
+                }
+            });
+
+            String response = completion.get(GENERATION_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            log.info("Received streamed response from AI provider (length: {})", response != null ? response.length() : 0);
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("AI Generation interrupted");
+        } catch (TimeoutException e) {
+            countError(provider, "timeout");
+            throw new RuntimeException("AI Generation timed out after " + GENERATION_TIMEOUT.toSeconds() + "s");
+        } catch (ExecutionException e) {
+            log.error("Error during streaming AI generation. Provider: {}", provider, e.getCause());
+            throw translateError(provider, e.getCause());
+        } catch (Exception e) {
+            log.error("Error during streaming AI generation. Provider: {}", provider, e);
+            throw translateError(provider, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clientCache.invalidateAll();
+        clientCache.cleanUp();
+        streamingClientCache.invalidateAll();
+        streamingClientCache.cleanUp();
+    }
+
+    private RuntimeException translateError(String provider, Throwable e) {
+        String message = String.valueOf(e.getMessage());
+        // Check for common errors usually wrapped in runtime exceptions by LangChain4j
+        // Billing quota exhaustion is also reported as 429 but will not recover by retrying
+        if (message.contains("401")) {
+            countError(provider, "auth");
+            return new RuntimeException("Authentication failed (401). Please check your API Key.");
+        } else if (message.contains("insufficient_quota") || message.contains("exceeded your current quota")) {
+            countError(provider, "quota");
+            return new RuntimeException("Quota exceeded. Please check your billing/usage.");
+        } else if (message.contains("429") || message.contains("RESOURCE_EXHAUSTED")
+                || (e instanceof OpenAiHttpException http && http.code() == 429)) {
+            countError(provider, "rate_limited");
+            return new RateLimitedException("Rate limit exceeded (429). Please try again later.");
+        } else if (message.contains("quota")) {
+            countError(provider, "quota");
+            return new RuntimeException("Quota exceeded. Please check your billing/usage.");
+        }
+        countError(provider, "other");
+        return new RuntimeException("AI Generation failed: " + message);
+    }
+
+    private void countError(String provider, String reason) {
+        meterRegistry.counter("ai.errors", "provider", AnalysisMetrics.providerTag(provider),
+                "reason", reason).increment();
+    }
+
+    private ClientKey clientKey(String provider, String apiKey, String modelName) {
+        String normalizedProvider = provider != null ? provider.toUpperCase() : null;
+        return new ClientKey(normalizedProvider, resolveModelName(normalizedProvider, modelName),
+                Hashing.sha256Hex(apiKey));
+    }
+
+    private String resolveModelName(String provider, String modelName) {
+        if (modelName != null && !modelName.isEmpty()) {
+            return modelName;
+        }
+        return "GEMINI".equals(provider) ? "gemini-1.5-pro" : "gpt-4o";
+    }
+
+    private <M> Cache<ClientKey, M> buildClientCache(AnalysisProperties.ClientCache settings) {
+        return Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterAccess(settings.getIdleTimeout())
+                .removalListener((ClientKey key, M model, RemovalCause cause) -> {
+                    log.info("Releasing AI client. Provider: {}, Model: {}, Cause: {}",
+                            key != null ? key.provider() : null, key != null ? key.modelName() : null, cause);
+                    shutdownClient(model);
+                })
+                .recordStats()
+                .build();
+    }
+
+    private ChatLanguageModel createChatModel(ClientKey key, String apiKey) {
+        log.info("Initializing AI Model. Provider: {}, Model: {}", key.provider(), key.modelName());
+
+        if ("GEMINI".equals(key.provider())) {
+            return GoogleAiGeminiChatModel.builder()
+                    .apiKey(apiKey)
+                    .modelName(key.modelName())
+                    .temperature(0.7)
+                    .timeout(GENERATION_TIMEOUT)
+                    .build();
+        } else if ("OPENAI".equals(key.provider())) {
+            return OpenAiChatModel.builder()
+                    .baseUrl(openaiBaseUrl) // null keeps the default
+                    .apiKey(apiKey)
+                    .modelName(key.modelName())
+                    .temperature(0.7)
+                    .timeout(GENERATION_TIMEOUT)
+                    .build();
+        }
+        throw new IllegalArgumentException("Unsupported provider: " + key.provider());
+    }
+
+    private StreamingChatLanguageModel createStreamingChatModel(ClientKey key, String apiKey) {
+        log.info("Initializing streaming AI Model. Provider: {}, Model: {}", key.provider(), key.modelName());
+
+        if ("GEMINI".equals(key.provider())) {
+            return GoogleAiGeminiStreamingChatModel.builder()
+                    .apiKey(apiKey)
+                    .modelName(key.modelName())
+                    .temperature(0.7)
+                    .timeout(GENERATION_TIMEOUT)
+                    .build();
+        } else if ("OPENAI".equals(key.provider())) {
+            return OpenAiStreamingChatModel.builder()
+                    .baseUrl(openaiBaseUrl)
+                    .apiKey(apiKey)
+                    .modelName(key.modelName())
+                    .temperature(0.7)
+                    .timeout(GENERATION_TIMEOUT)
+                    .build();
+        }
+        throw new IllegalArgumentException("Unsupported provider: " + key.provider());
+    }
+
+    /**
+     * LangChain4j does not expose a close() on its chat models. The OpenAI models own an
+     * OkHttp-backed client whose dispatcher and connection pool must be shut down explicitly;
+     * the Gemini models use the JDK HttpClient, which releases its resources once unreachable.
+     */
+    private void shutdownClient(Object model) {
+        if (model == null) {
+            return;
+        }
+        try {
+            if (model instanceof AutoCloseable closeable) {
+                closeable.close();
+                return;
             }
-            throw new RuntimeException("AI Generation failed: " + e.getMessage());
+            OpenAiClient client = openAiClient(model);
+            if (client != null) {
+                client.shutdown();
+            }
+        } catch (Exception e) {
+            log.debug("Could not shut down AI client cleanly: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The openai4j client inside a LangChain4j OpenAI model, which keeps it private; null for
+     * other models or if the field is not there in this LangChain4j version.
+     */
+    private OpenAiClient openAiClient(Object model) {
+        if (!(model instanceof OpenAiChatModel || model instanceof OpenAiStreamingChatModel)) {
+            return null;
+        }
+        try {
+            Field clientField = model.getClass().getDeclaredField("client");
+            clientField.setAccessible(true);
+            return clientField.get(model) instanceof OpenAiClient client ? client : null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Could not reach the OpenAI client of {}: {}", model.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String deltaOf(ChatCompletionResponse partial) {
+        if (partial.choices() == null || partial.choices().isEmpty() || partial.choices().get(0).delta() == null) {
+            return "";
         }
+        String content = partial.choices().get(0).delta().content();
+        return content != null ? content : "";
     }
 }
@@ -0,0 +1,189 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.dto.AnalysisSummary;
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.event.AnalysisOutputEvent;
+import com.resume.api.event.AnalysisStatusChangedEvent;
+import com.resume.api.repository.JobAnalysisRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes analysis status transitions to Server-Sent Events subscribers so clients do not
+ * have to poll {@code GET /api/analysis/{id}}. Transitions made on this node arrive as
+ * events; those made by another node sharing the database are picked up by a periodic
+ * check of the subscribed rows. Streamed {@code partial} output is only forwarded by the
+ * node generating it.
+ */
+@Service
+@Slf4j
+public class AnalysisEventStream {
+
+    /**
+     * Payload of a {@code status} event. Deliberately excludes the result JSON, which is
+     * sent exactly once in the final {@code result} event.
+     */
+    public record StatusUpdate(UUID id, AnalysisStatus status, String errorMessage, LocalDateTime updatedAt) {
+    }
+
+    private final JobAnalysisRepository jobAnalysisRepository;
+    private final AnalysisResultStore analysisResultStore;
+    private final AnalysisProperties.Events settings;
+    private final Map<UUID, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    // Last status each subscriber was sent, so a transition seen both locally and in the database goes out once
+    private final Map<SseEmitter, AnalysisStatus> sent = new ConcurrentHashMap<>();
+
+    public AnalysisEventStream(JobAnalysisRepository jobAnalysisRepository, AnalysisResultStore analysisResultStore,
+                               AnalysisProperties analysisProperties) {
+        this.jobAnalysisRepository = jobAnalysisRepository;
+        this.analysisResultStore = analysisResultStore;
+        this.settings = analysisProperties.getEvents();
+    }
+
+    /**
+     * Registers a subscriber and immediately sends it the current state, so a reconnecting
+     * client catches up without a separate request.
+     */
+    public Optional<SseEmitter> subscribe(UUID analysisId) {
+        // Register before reading so a transition racing with the lookup is not lost
+        SseEmitter emitter = new SseEmitter(settings.getTimeout().toMillis());
+        subscribers.computeIfAbsent(analysisId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(analysisId, emitter));
+        emitter.onTimeout(() -> unsubscribe(analysisId, emitter));
+        emitter.onError(e -> unsubscribe(analysisId, emitter));
+
+        Optional<AnalysisStatusChangedEvent> current = jobAnalysisRepository.findById(analysisId)
+                .map(analysisResultStore::attach)
+                .map(AnalysisStatusChangedEvent::of);
+        if (current.isEmpty()) {
+            unsubscribe(analysisId, emitter);
+            return Optional.empty();
+        }
+
+        send(emitter, current.get());
+        return Optional.of(emitter);
+    }
+
+    @EventListener
+    public void onStatusChanged(AnalysisStatusChangedEvent event) {
+        List<SseEmitter> emitters = event.isTerminal()
+                ? subscribers.remove(event.analysisId())
+                : subscribers.get(event.analysisId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, event);
+        }
+    }
+
+    /**
+     * Forwards streamed model output as {@code partial} events while generation runs. The
+     * final {@code result} event still carries the complete JSON.
+     */
+    @EventListener
+    public void onOutput(AnalysisOutputEvent event) {
+        List<SseEmitter> emitters = subscribers.get(event.analysisId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("partial").data(event.chunk(), MediaType.TEXT_PLAIN));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(event.analysisId(), emitter);
+            }
+        }
+    }
+
+    /**
+     * Sends subscribers the transitions made by other nodes, which this node gets no events
+     * for: one query over all subscribed analyses, and the full row only for those that
+     * reached a terminal status.
+     */
+    @Scheduled(fixedDelayString = "${analysis.events.poll-interval-ms:2000}")
+    public void pollStatuses() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (AnalysisSummary summary : jobAnalysisRepository.findSummariesByIds(List.copyOf(subscribers.keySet()))) {
+            List<SseEmitter> emitters = subscribers.get(summary.id());
+            if (emitters == null || emitters.stream().allMatch(emitter -> sent.get(emitter) == summary.status())) {
+                continue;
+            }
+            if (summary.status() == AnalysisStatus.COMPLETE || summary.status() == AnalysisStatus.ERROR) {
+                jobAnalysisRepository.findById(summary.id())
+                        .map(analysisResultStore::attach)
+                        .map(AnalysisStatusChangedEvent::of)
+                        .ifPresent(this::onStatusChanged);
+            } else {
+                onStatusChanged(new AnalysisStatusChangedEvent(summary.id(), summary.status(),
+                        summary.errorMessage(), null, summary.updatedAt()));
+            }
+        }
+    }
+
+    /**
+     * Comment lines keep idle connections from being closed by proxies and surface dead
+     * clients so their emitters can be dropped.
+     */
+    @Scheduled(fixedRateString = "${analysis.events.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        subscribers.forEach((analysisId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(analysisId, emitter);
+                }
+            }
+        });
+    }
+
+    private void send(SseEmitter emitter, AnalysisStatusChangedEvent event) {
+        if (sent.put(emitter, event.status()) == event.status()) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(event.analysisId() + ":" + event.status())
+                    .name("status")
+                    .data(new StatusUpdate(event.analysisId(), event.status(), event.errorMessage(), event.updatedAt()),
+                            MediaType.APPLICATION_JSON));
+            if (event.status() == AnalysisStatus.COMPLETE) {
+                emitter.send(SseEmitter.event()
+                        .name("result")
+                        .data(event.analysisResultJson() != null ? event.analysisResultJson() : "null",
+                                MediaType.APPLICATION_JSON));
+            }
+            if (event.isTerminal()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping SSE subscriber for analysis {}: {}", event.analysisId(), e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(UUID analysisId, SseEmitter emitter) {
+        sent.remove(emitter);
+        subscribers.computeIfPresent(analysisId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
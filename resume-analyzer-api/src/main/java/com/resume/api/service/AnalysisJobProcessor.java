@@ -1,62 +1,292 @@
 package com.resume.api.service;
 
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.config.ResumeProperties;
+import com.resume.api.dto.AnalysisTicket;
 import com.resume.api.entity.AnalysisStatus;
 import com.resume.api.entity.JobAnalysis;
 import com.resume.api.entity.Resume;
+import com.resume.api.entity.ResumeStatus;
+import com.resume.api.event.AnalysisStatusChangedEvent;
+import com.resume.api.event.AnalysisSubmittedEvent;
+import com.resume.api.event.ResumeExtractedEvent;
+import com.resume.api.exception.RateLimitedException;
+import io.micrometer.core.instrument.Timer;
 import com.resume.api.repository.JobAnalysisRepository;
 import com.resume.api.repository.ResumeRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AnalysisJobProcessor {
 
+    static final String EXPIRED_MESSAGE = "Expired: no worker was free before the analysis' deadline";
+
     private final JobAnalysisRepository jobAnalysisRepository;
     private final ResumeRepository resumeRepository;
     private final ScraperService scraperService;
     private final AiService aiService;
+    private final AiHedgingService aiHedgingService;
+    private final AnalysisResultCache analysisResultCache;
+    private final AnalysisResultStore analysisResultStore;
+    private final SearchService searchService;
+    private final KeywordScoringService keywordScoringService;
+    private final PromptCompactor promptCompactor;
+    private final AnalysisMetrics analysisMetrics;
+    private final AnalysisStreamBuffer analysisStreamBuffer;
+    private final ProviderRateLimiter providerRateLimiter;
+    private final AnalysisLeaseService analysisLeaseService;
+    private final FairAnalysisQueue fairAnalysisQueue;
+    private final TaskScheduler taskScheduler;
+    private final AnalysisProperties analysisProperties;
+    private final ResumeProperties resumeProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    @Qualifier("analysisExecutor")
+    private final ThreadPoolTaskExecutor analysisExecutor;
+
+    // IDs queued or running on this node; guards against dispatching a row twice
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    // Set when PENDING work was left in the database; workers then claim more as they finish
+    private final AtomicBoolean backlog = new AtomicBoolean();
+
+    /**
+     * Hand-off path: new analyses are queued as soon as their row is committed. With no
+     * surrounding transaction (save() commits on its own) the listener runs immediately.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAnalysisSubmitted(AnalysisSubmittedEvent event) {
+        dispatch(AnalysisTicket.of(event), false);
+    }
 
-    @Scheduled(fixedDelay = 2000) // Run every 2 seconds
-    @Transactional
-    public void processPendingAnalyses() {
-        List<JobAnalysis> pendingAnalyses = jobAnalysisRepository.findByStatusOrderByCreatedAtAsc(AnalysisStatus.PENDING);
-        
-        if (!pendingAnalyses.isEmpty()) {
-            log.info("Found {} pending analyses to process", pendingAnalyses.size());
+    /**
+     * Runs the analyses that were parked while their resume was being extracted.
+     */
+    @EventListener
+    public void onResumeExtracted(ResumeExtractedEvent event) {
+        for (AnalysisTicket ticket : jobAnalysisRepository.findTicketsByResumeIdAndStatus(event.resumeId(), AnalysisStatus.PENDING)) {
+            dispatch(ticket, false);
+        }
+    }
+
+    /**
+     * Recovery sweep: returns analyses whose node died to PENDING, expires those whose
+     * deadline passed, then claims PENDING rows that never made it onto a work queue (node
+     * saturated, tenant over its share, node restarted). Claiming goes round-robin across
+     * tenants and skips rows another node is claiming at the same moment, so each node takes
+     * a disjoint share; no transaction is held while analyses run.
+     */
+    @Scheduled(fixedDelayString = "${analysis.worker.recovery-interval-ms:30000}")
+    public void recoverPendingAnalyses() {
+        int reclaimed = analysisLeaseService.reclaimExpired();
+        if (reclaimed > 0) {
+            log.warn("Reclaimed {} analyses whose lease expired", reclaimed);
+        }
+        int expired = jobAnalysisRepository.expireOverdue(LocalDateTime.now(), EXPIRED_MESSAGE);
+        if (expired > 0) {
+            analysisMetrics.expired(expired);
+            log.info("Expired {} pending analyses past their deadline", expired);
         }
 
-        for (JobAnalysis analysis : pendingAnalyses) {
+        int dispatched = claimPending(analysisProperties.getScheduling().getTenantQueueLimit());
+        if (dispatched > 0) {
+            log.info("Recovered {} pending analyses ({} in flight)", dispatched, inFlight.size());
+        }
+    }
+
+    /**
+     * Claims PENDING analyses for the free slots of this node, round-robin across tenants
+     * with at most {@code perTenant} each, and queues them. Returns how many were queued.
+     */
+    private int claimPending(int perTenant) {
+        int freeSlots = capacity() - inFlight.size();
+        if (freeSlots <= 0) {
+            backlog.set(true);
+            return 0;
+        }
+        List<UUID> claimedIds = analysisLeaseService.claimPending(freeSlots, perTenant);
+        if (claimedIds.isEmpty()) {
+            return 0;
+        }
+        // There may be more behind these; the next worker to finish checks
+        backlog.set(true);
+        int dispatched = 0;
+        for (AnalysisTicket ticket : jobAnalysisRepository.findTicketsByIds(claimedIds)) {
+            if (dispatch(ticket, true)) {
+                dispatched++;
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Keeps the leases of the analyses this node is running alive. An analysis whose lease
+     * could not be renewed was reclaimed by another node; its result will be discarded.
+     */
+    @Scheduled(fixedDelayString = "${analysis.worker.heartbeat-interval-ms:20000}")
+    public void renewLeases() {
+        analysisLeaseService.renew(Set.copyOf(inFlight));
+    }
+
+    /**
+     * Queues an analysis for the worker pool. Returns false when this node is saturated or
+     * the analysis' tenant already has its share queued here; the row stays (or goes back
+     * to) PENDING and the recovery sweep retries it.
+     */
+    private boolean dispatch(AnalysisTicket ticket, boolean claimed) {
+        if (!inFlight.add(ticket.id())) {
+            return true;
+        }
+        if (inFlight.size() > capacity() || !fairAnalysisQueue.offer(ticket, claimed)) {
+            abandon(ticket.id(), claimed);
+            backlog.set(true);
+            return false;
+        }
+        try {
+            // One task per queued analysis; each runs whichever analysis is due when it starts
+            analysisExecutor.execute(this::runNext);
+            return true;
+        } catch (TaskRejectedException e) {
+            // Give back an analysis that now has no task to run it
+            FairAnalysisQueue.Entry surplus = fairAnalysisQueue.poll();
+            if (surplus != null) {
+                abandon(surplus.ticket().id(), surplus.claimed());
+            }
+            backlog.set(true);
+            log.warn("Analysis executor is saturated, leaving {} pending", ticket.id());
+            return false;
+        }
+    }
+
+    private void abandon(UUID analysisId, boolean claimed) {
+        inFlight.remove(analysisId);
+        if (claimed) {
+            analysisLeaseService.release(analysisId);
+        }
+    }
+
+    private int capacity() {
+        AnalysisProperties.Worker worker = analysisProperties.getWorker();
+        return worker.getConcurrency() + worker.getQueueCapacity();
+    }
+
+    private void runNext() {
+        FairAnalysisQueue.Entry next = fairAnalysisQueue.poll();
+        if (next != null) {
+            runAnalysis(next.ticket().id(), next.claimed());
+        }
+        if (backlog.compareAndSet(true, false)) {
+            // Top up from the database now rather than at the next sweep; one analysis per
+            // tenant, so the tenant with the oldest backlog cannot take every free slot
+            try {
+                claimPending(1);
+            } catch (Exception e) {
+                backlog.set(true);
+                log.warn("Could not claim pending analyses: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void runAnalysis(UUID analysisId, boolean claimed) {
+        try {
+            // Claim the row in its own short transaction; lose gracefully if another worker won.
+            // A local sweep may have claimed it for this node while the hand-off was queued.
+            if (!claimed && !analysisLeaseService.claim(analysisId) && !analysisLeaseService.holds(analysisId)) {
+                return;
+            }
+
+            JobAnalysis analysis = jobAnalysisRepository.findById(analysisId).orElse(null);
+            if (analysis == null) {
+                return;
+            }
+            if (AnalysisTicket.of(analysis).expired(LocalDateTime.now())) {
+                // Nobody is waiting for this result any more; spend no tokens on it
+                log.info("Analysis {} passed its deadline before it started, expiring it", analysisId);
+                analysisMetrics.expired(1);
+                failAnalysis(analysis, EXPIRED_MESSAGE, AnalysisMetrics.Outcome.EXPIRED);
+                return;
+            }
+
             try {
                 processAnalysis(analysis);
+            } catch (RateLimitedException e) {
+                analysisMetrics.error(analysis, e);
+                retryThrottled(analysis, e);
             } catch (Exception e) {
                 log.error("Error processing analysis {}: {}", analysis.getId(), e.getMessage(), e);
-                analysis.setStatus(AnalysisStatus.ERROR);
-                analysis.setErrorMessage(e.getMessage());
-                analysis.setUpdatedAt(LocalDateTime.now());
-                jobAnalysisRepository.save(analysis);
+                analysisMetrics.error(analysis, e);
+                failAnalysis(analysis, e.getMessage());
             }
+        } catch (Exception e) {
+            log.error("Failed to run analysis {}: {}", analysisId, e.getMessage(), e);
+        } finally {
+            inFlight.remove(analysisId);
         }
     }
 
     private void processAnalysis(JobAnalysis analysis) throws Exception {
         log.info("Processing analysis: {}", analysis.getId());
-        
-        // Update status to PROCESSING
-        analysis.setStatus(AnalysisStatus.PROCESSING);
-        analysis.setUpdatedAt(LocalDateTime.now());
-        jobAnalysisRepository.save(analysis);
 
         // Fetch resume
         Resume resume = resumeRepository.findById(analysis.getResume().getId())
                 .orElseThrow(() -> new RuntimeException("Resume not found"));
+        if (resume.getStatus() == ResumeStatus.EXTRACTING) {
+            // Woken by ResumeExtractedEvent; the delay only matters if another node extracts it
+            log.info("Resume {} is still being extracted, analysis {} waits", resume.getId(), analysis.getId());
+            requeue(analysis, resumeProperties.getExtraction().getAnalysisPollInterval(), false);
+            return;
+        }
+        if (resume.getStatus() == ResumeStatus.FAILED) {
+            throw new IllegalStateException("Resume could not be read: " + resume.getErrorMessage());
+        }
+
+        // Take a slot in the provider key's concurrency limit first: a deferral would
+        // otherwise repeat the scrape and prompt building on every cycle
+        String limiterKey = providerRateLimiter.keyFor(analysis.getProviderUsed(), analysis.getApiKey());
+        if (!providerRateLimiter.tryAcquire(limiterKey)) {
+            log.info("Provider concurrency limit reached, deferring analysis {}", analysis.getId());
+            requeue(analysis, jitter(analysisProperties.getRateLimit().getDeferDelay()), false);
+            return;
+        }
+        ProviderRateLimiter.Outcome outcome = ProviderRateLimiter.Outcome.FAILED;
+        try {
+            boolean called = analyze(analysis, resume);
+            outcome = called ? ProviderRateLimiter.Outcome.SUCCESS : ProviderRateLimiter.Outcome.UNUSED;
+        } catch (RateLimitedException e) {
+            outcome = ProviderRateLimiter.Outcome.THROTTLED;
+            throw e;
+        } finally {
+            providerRateLimiter.release(limiterKey, outcome);
+        }
+    }
+
+    /**
+     * Runs an analysis that holds its provider slot. Returns true when it called the
+     * provider, false when the result cache answered instead.
+     */
+    private boolean analyze(JobAnalysis analysis, Resume resume) throws Exception {
+        started(analysis);
 
         // Process job description (scrape if URL)
         String jobDescriptionText = analysis.getJobDescriptionEntry();
@@ -64,45 +294,215 @@ public class AnalysisJobProcessor {
             // Simple heuristic: if it starts with http, treat as URL
             if (jobDescriptionText.startsWith("http://") || jobDescriptionText.startsWith("https://")) {
                 log.info("Scraping job description from URL");
+                Timer.Sample scrape = analysisMetrics.start();
                 jobDescriptionText = scraperService.scrapeJobDescription(jobDescriptionText);
+                analysisMetrics.stop(scrape, AnalysisMetrics.Stage.SCRAPE, analysis);
+                analysis.setJobDescriptionText(jobDescriptionText); // Stored with the result, for search
             }
         } catch (Exception e) {
             log.warn("Failed to scrape URL, using original text: {}", e.getMessage());
             // Continue with original text
         }
 
-        // Construct prompt
-        String prompt = constructPrompt(resume.getContent(), jobDescriptionText);
+        // Pre-score wasn't possible at submission if the URL couldn't be scraped then
+        if (analysis.getKeywordScore() == null) {
+            keywordScoringService.applyTo(analysis, resume.getContent(), jobDescriptionText);
+            if (analysis.getKeywordScore() != null) {
+                // Targeted update: a full save would write back the lease expiry read at claim time
+                jobAnalysisRepository.updateKeywordScore(analysis.getId(), analysis.getKeywordScore(),
+                        analysis.getKeywordMatches(), analysis.getKeywordGaps(), LocalDateTime.now());
+            }
+        }
+
+        // Identical resume + job + provider + model already analyzed: reuse it
+        String cacheKey = analysisResultCache.keyFor(
+                resume.getContent(), jobDescriptionText, analysis.getProviderUsed(), analysis.getModelUsed());
+        if (!Boolean.TRUE.equals(analysis.getSkipCache())) {
+            String cachedResult = analysisResultCache.get(cacheKey).orElse(null);
+            if (cachedResult != null) {
+                completeAnalysis(analysis, cachedResult, AnalysisMetrics.Outcome.CACHED);
+                log.info("Analysis completed from result cache: {}", analysis.getId());
+                return false;
+            }
+        }
+
+        // Construct prompt from the compacted resume and job description
+        Timer.Sample promptBuild = analysisMetrics.start();
+        PromptCompactor.CompactedInput input = promptCompactor.compact(
+                analysis.getProviderUsed(), analysis.getModelUsed(), resume.getContent(), jobDescriptionText);
+        log.info("Prompt input for analysis {}: resume {} -> {} tokens, job description {} -> {} tokens",
+                analysis.getId(), input.resumeTokensBefore(), input.resumeTokensAfter(),
+                input.jobDescriptionTokensBefore(), input.jobDescriptionTokensAfter());
+        String prompt = constructPrompt(input.resumeText(), input.jobDescriptionText());
+        analysisMetrics.stop(promptBuild, AnalysisMetrics.Stage.PROMPT, analysis);
+        analysisMetrics.prompt(analysis, prompt.length(), input.resumeTokensAfter() + input.jobDescriptionTokensAfter());
+
+        // Call AI, within the adaptive concurrency limit of this provider + API key
+        String analysisJson;
+        Timer.Sample llmCall = analysisMetrics.start();
+        try {
+            analysisJson = generate(analysis, prompt);
+        } finally {
+            analysisMetrics.stop(llmCall, AnalysisMetrics.Stage.LLM, analysis);
+        }
+        analysisMetrics.response(analysis, analysisJson);
+
+        // Update with results
+        completeAnalysis(analysis, analysisJson, AnalysisMetrics.Outcome.COMPLETE);
+        analysisResultCache.put(cacheKey, analysisJson);
+
+        log.info("Analysis completed successfully: {}", analysis.getId());
+        return true;
+    }
+
+    /**
+     * Announces that a worker is on the analysis. Queue wait is recorded on its first start
+     * only, however often it was deferred or retried before.
+     */
+    private void started(JobAnalysis analysis) {
+        LocalDateTime now = LocalDateTime.now();
+        if (jobAnalysisRepository.markStarted(analysis.getId(), now) > 0) {
+            analysis.setStartedAt(now);
+            analysis.setUpdatedAt(now);
+            analysisMetrics.waited(analysis);
+        }
+        eventPublisher.publishEvent(AnalysisStatusChangedEvent.of(analysis));
+    }
+
+    private String generate(JobAnalysis analysis, String prompt) {
+        if (analysisProperties.getAi().isStreaming()) {
+            log.info("Calling AI service for analysis (streaming)");
+            analysisStreamBuffer.start(analysis.getId());
+            try {
+                return aiService.analyzeJobStreaming(
+                        analysis.getProviderUsed(),
+                        analysis.getApiKey(),
+                        analysis.getModelUsed(),
+                        prompt,
+                        token -> analysisStreamBuffer.append(analysis.getId(), token)
+                );
+            } finally {
+                analysisStreamBuffer.finish(analysis.getId());
+            }
+        }
 
-        // Call AI
         log.info("Calling AI service for analysis");
-        String analysisJson = aiService.analyzeJob(
+        return aiHedgingService.analyzeJob(
                 analysis.getProviderUsed(),
                 analysis.getApiKey(),
                 analysis.getModelUsed(),
                 prompt
         );
+    }
 
-        // Update with results
-        analysis.setAnalysisResultJson(analysisJson);
+    /**
+     * A 429 is transient: re-queue with jittered exponential backoff until the retry budget
+     * is spent, then fail like any other error.
+     */
+    private void retryThrottled(JobAnalysis analysis, RateLimitedException e) {
+        AnalysisProperties.Retry retry = analysisProperties.getRetry();
+        int attempts = analysis.getRetryCount() != null ? analysis.getRetryCount() : 0;
+        if (attempts >= retry.getMaxAttempts()) {
+            log.warn("Analysis {} still throttled after {} retries, giving up", analysis.getId(), attempts);
+            failAnalysis(analysis, e.getMessage() + " Gave up after " + attempts + " retries.");
+            return;
+        }
+
+        long ceiling = Math.min(retry.getMaxDelay().toMillis(),
+                retry.getBaseDelay().toMillis() << Math.min(attempts, 20));
+        Duration delay = Duration.ofMillis(ThreadLocalRandom.current().nextLong(
+                retry.getBaseDelay().toMillis(), Math.max(retry.getBaseDelay().toMillis(), ceiling) + 1));
+        log.info("Analysis {} throttled by provider, retry {} in {} ms", analysis.getId(), attempts + 1, delay.toMillis());
+        requeue(analysis, delay, true);
+    }
+
+    /**
+     * Puts the analysis back to PENDING and schedules it to be dispatched again after the
+     * delay. The recovery sweep honours nextAttemptAt as well, so nothing is lost on restart.
+     * A retry counts against the retry budget and is announced; a deferral comes before the
+     * analysis started, so its listeners never saw it leave PENDING and hear nothing.
+     */
+    private void requeue(JobAnalysis analysis, Duration delay, boolean retry) {
+        if (retry) {
+            analysis.setRetryCount((analysis.getRetryCount() != null ? analysis.getRetryCount() : 0) + 1);
+        }
+        releaseLease(analysis);
+        analysis.setStatus(AnalysisStatus.PENDING);
+        analysis.setNextAttemptAt(LocalDateTime.now().plus(delay));
+        analysis.setUpdatedAt(LocalDateTime.now());
+        if (!analysisLeaseService.requeue(analysis)) {
+            leaseLost(analysis);
+            return;
+        }
+        if (retry) {
+            eventPublisher.publishEvent(AnalysisStatusChangedEvent.of(analysis));
+        }
+
+        AnalysisTicket ticket = AnalysisTicket.of(analysis);
+        taskScheduler.schedule(() -> dispatch(ticket, false), Instant.now().plus(delay));
+    }
+
+    /**
+     * A node that stalled past its lease lost the analysis to another node; whatever it
+     * produced was not written, and the new owner's work stands.
+     */
+    private void leaseLost(JobAnalysis analysis) {
+        log.warn("Lease on analysis {} was lost to another node, discarding this attempt", analysis.getId());
+    }
+
+    private void releaseLease(JobAnalysis analysis) {
+        analysis.setLeaseOwner(null);
+        analysis.setLeaseExpiresAt(null);
+    }
+
+    private Duration jitter(Duration delay) {
+        long millis = delay.toMillis();
+        return Duration.ofMillis(millis + ThreadLocalRandom.current().nextLong(millis + 1));
+    }
+
+    private void failAnalysis(JobAnalysis analysis, String errorMessage) {
+        failAnalysis(analysis, errorMessage, AnalysisMetrics.Outcome.ERROR);
+    }
+
+    private void failAnalysis(JobAnalysis analysis, String errorMessage, AnalysisMetrics.Outcome outcome) {
+        releaseLease(analysis);
+        analysis.setStatus(AnalysisStatus.ERROR);
+        analysis.setErrorMessage(errorMessage);
+        analysis.setUpdatedAt(LocalDateTime.now());
+        if (!analysisLeaseService.fail(analysis)) {
+            leaseLost(analysis);
+            return;
+        }
+        analysisMetrics.finished(analysis, outcome);
+        eventPublisher.publishEvent(AnalysisStatusChangedEvent.of(analysis));
+    }
+
+    private void completeAnalysis(JobAnalysis analysis, String analysisJson, AnalysisMetrics.Outcome outcome) {
+        releaseLease(analysis);
+        analysisResultStore.applyResult(analysis, analysisJson);
         analysis.setStatus(AnalysisStatus.COMPLETE);
         analysis.setErrorMessage(null);
         analysis.setUpdatedAt(LocalDateTime.now());
-        jobAnalysisRepository.save(analysis);
-        
-        log.info("Analysis completed successfully: {}", analysis.getId());
+        Timer.Sample save = analysisMetrics.start();
+        if (!analysisLeaseService.complete(analysis)) {
+            leaseLost(analysis);
+            return;
+        }
+        searchService.index(analysis);
+        analysisMetrics.stop(save, AnalysisMetrics.Stage.SAVE, analysis);
+        analysisMetrics.finished(analysis, outcome);
+        eventPublisher.publishEvent(AnalysisStatusChangedEvent.of(analysis));
     }
 
-    private String constructPrompt(String resumeText, String jobDescription) {
+    /**
+     * Fixed instructions first, then the resume, then the job description: every analysis of
+     * the same resume (a batch in particular) shares the longest possible prompt prefix, which
+     * providers with prefix caching bill and serve faster.
+     */
+    static String constructPrompt(String resumeText, String jobDescription) {
         return """
                 You are an expert Resume Analyzer and Career Coach.
-                Analyze the following Resume against the Job Description.
-
-                JOB DESCRIPTION:
-                %s
-
-                RESUME:
-                %s
+                Analyze the Resume below against the Job Description that follows it.
 
                 Output the result strictly in JSON format with the following structure:
                 {
@@ -121,7 +521,13 @@ public class AnalysisJobProcessor {
                   "tailoredResume": "Rewrite the resume in Markdown format, highlighting experience relevant to the job description..."
                 }
                 Do not include markdown formatting like ```json ... ```, just the raw JSON.
+
+                RESUME:
+                %s
+
+                JOB DESCRIPTION:
+                %s
                 """
-                .formatted(jobDescription, resumeText);
+                .formatted(resumeText, jobDescription);
     }
 }
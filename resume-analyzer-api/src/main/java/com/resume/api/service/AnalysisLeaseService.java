@@ -0,0 +1,142 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.repository.JobAnalysisRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Leases analyses to this node while it processes them, so several API instances can share
+ * one database: a row is claimed by exactly one node, the owner keeps the lease alive with
+ * heartbeats, and a lease that runs out (crash, hang) lets any node run the analysis again.
+ * The owner writes the outcome with updates conditional on still holding the lease, so a
+ * node that stalled past its lease cannot overwrite the node that took over.
+ */
+@Service
+@Slf4j
+public class AnalysisLeaseService {
+
+    private final JobAnalysisRepository jobAnalysisRepository;
+    private final AnalysisResultStore analysisResultStore;
+    private final AnalysisProperties.Worker settings;
+    private final String owner;
+
+    public AnalysisLeaseService(JobAnalysisRepository jobAnalysisRepository, AnalysisResultStore analysisResultStore,
+                                AnalysisProperties analysisProperties) {
+        this.jobAnalysisRepository = jobAnalysisRepository;
+        this.analysisResultStore = analysisResultStore;
+        this.settings = analysisProperties.getWorker();
+        this.owner = settings.getNodeId() != null && !settings.getNodeId().isBlank()
+                ? settings.getNodeId()
+                : hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        log.info("Analysis worker node id: {}", owner);
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    /**
+     * Claims up to {@code limit} dispatchable PENDING analyses in one transaction, taken
+     * round-robin across tenants with at most {@code perTenant} each. Rows locked by another
+     * node's concurrent claim are skipped rather than waited for.
+     */
+    @Transactional
+    public List<UUID> claimPending(int limit, int perTenant) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> candidates = jobAnalysisRepository.findFairDispatchableIds(now, perTenant, limit);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        List<UUID> ids = jobAnalysisRepository.lockPendingIds(candidates);
+        if (!ids.isEmpty()) {
+            jobAnalysisRepository.claimAll(ids, owner, now.plus(settings.getLeaseDuration()), now);
+        }
+        return ids;
+    }
+
+    public boolean claim(UUID analysisId) {
+        LocalDateTime now = LocalDateTime.now();
+        return jobAnalysisRepository.claim(analysisId, owner, now.plus(settings.getLeaseDuration()), now) > 0;
+    }
+
+    /**
+     * Extends the leases this node still holds among {@code analysisIds}; returns how many
+     * were renewed.
+     */
+    public int renew(Collection<UUID> analysisIds) {
+        if (analysisIds.isEmpty()) {
+            return 0;
+        }
+        return jobAnalysisRepository.renewLeases(analysisIds, owner, LocalDateTime.now().plus(settings.getLeaseDuration()));
+    }
+
+    public int reclaimExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        return jobAnalysisRepository.reclaimExpired(now, now.minus(settings.getLeaseDuration()));
+    }
+
+    public void release(UUID analysisId) {
+        jobAnalysisRepository.releaseLease(analysisId, owner, LocalDateTime.now());
+    }
+
+    /**
+     * Puts an analysis this node owns back to PENDING with the retry count and next attempt
+     * set on it. False when the lease was lost and nothing was written.
+     */
+    public boolean requeue(JobAnalysis analysis) {
+        return jobAnalysisRepository.requeueOwned(analysis.getId(), owner, analysis.getRetryCount(),
+                analysis.getNextAttemptAt(), analysis.getUpdatedAt()) > 0;
+    }
+
+    /**
+     * Marks an analysis this node owns as ERROR with its error message. False when the lease
+     * was lost and nothing was written.
+     */
+    public boolean fail(JobAnalysis analysis) {
+        return jobAnalysisRepository.failOwned(analysis.getId(), owner, analysis.getErrorMessage(),
+                analysis.getUpdatedAt()) > 0;
+    }
+
+    /**
+     * Marks an analysis this node owns as COMPLETE and writes its artifact in the same
+     * transaction, so a COMPLETE row always has its result to read. False when the lease was
+     * lost; then neither the row nor the artifact is written.
+     */
+    @Transactional
+    public boolean complete(JobAnalysis analysis) {
+        int updated = jobAnalysisRepository.completeOwned(analysis.getId(), owner,
+                analysis.getAtsScore(), analysis.getRecruiterScore(), analysis.getMatchRatio(),
+                analysis.getSuccessProbability(), analysis.getMatchingKeywords(), analysis.getMissingKeywords(),
+                analysis.getUpdatedAt());
+        if (updated == 0) {
+            return false;
+        }
+        analysisResultStore.saveArtifact(analysis);
+        return true;
+    }
+
+    /**
+     * Whether this node still owns the analysis.
+     */
+    public boolean holds(UUID analysisId) {
+        return jobAnalysisRepository.holdsLease(analysisId, owner);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "node";
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.dto.AnalysisTicket;
+import com.resume.api.entity.AnalysisPriority;
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.repository.JobAnalysisRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer instruments for the analysis pipeline. Stage and end-to-end timers publish
+ * percentile histograms, so p95 latency SLOs can be computed per provider and model from
+ * the Prometheus endpoint. Provider, model and tenant all come from requests, so every tag
+ * value is bounded: providers the service supports, models listed in
+ * {@code analysis.metrics.models} and tenants configured in
+ * {@code analysis.scheduling.tenant-weights} are tagged by name, anything else as {@code other}.
+ */
+@Service
+public class AnalysisMetrics {
+
+    public enum Stage { SCRAPE, PROMPT, LLM, SAVE }
+
+    public enum Outcome { COMPLETE, CACHED, ERROR, EXPIRED }
+
+    public static final String OTHER = "other";
+    public static final String OTHER_TENANTS = OTHER;
+
+    private static final Set<String> PROVIDERS = Set.of("GEMINI", "OPENAI");
+
+    private final MeterRegistry meterRegistry;
+    private final JobAnalysisRepository jobAnalysisRepository;
+    private final AnalysisProperties.Scheduling scheduling;
+    private final AnalysisProperties.Metrics settings;
+    // Refreshed on a schedule so a Prometheus scrape never queries the database
+    private final Map<AnalysisStatus, AtomicLong> queueDepth = new EnumMap<>(AnalysisStatus.class);
+    private final Map<String, AtomicLong> pendingByTenant = new ConcurrentHashMap<>();
+
+    public AnalysisMetrics(MeterRegistry meterRegistry, JobAnalysisRepository jobAnalysisRepository,
+                           AnalysisProperties analysisProperties) {
+        this.meterRegistry = meterRegistry;
+        this.jobAnalysisRepository = jobAnalysisRepository;
+        this.scheduling = analysisProperties.getScheduling();
+        this.settings = analysisProperties.getMetrics();
+        for (AnalysisStatus status : List.of(AnalysisStatus.PENDING, AnalysisStatus.PROCESSING)) {
+            AtomicLong depth = new AtomicLong();
+            queueDepth.put(status, depth);
+            Gauge.builder("analysis.queue.depth", depth, AtomicLong::get)
+                    .description("Analyses waiting for or held by a worker")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.metrics.queue-depth-interval-ms:10000}")
+    public void refreshQueueDepth() {
+        queueDepth.forEach((status, depth) -> depth.set(jobAnalysisRepository.countByStatus(status)));
+
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : jobAnalysisRepository.countByTenant(AnalysisStatus.PENDING)) {
+            counts.merge(tenantTag((String) row[0]), (Long) row[1], Long::sum);
+        }
+        // Tags seen before drop to 0 rather than disappearing from the scrape
+        pendingByTenant.forEach((tenant, depth) -> depth.set(counts.getOrDefault(tenant, 0L)));
+        counts.forEach((tenant, count) -> pendingByTenant.computeIfAbsent(tenant, t -> {
+            AtomicLong depth = new AtomicLong();
+            Gauge.builder("analysis.tenant.pending", depth, AtomicLong::get)
+                    .description("PENDING analyses of a tenant across all nodes")
+                    .tag("tenant", t)
+                    .register(meterRegistry);
+            return depth;
+        }).set(count));
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void stop(Timer.Sample sample, Stage stage, JobAnalysis analysis) {
+        sample.stop(Timer.builder("analysis.stage")
+                .description("Time spent in one stage of processing an analysis")
+                .tag("stage", stage.name().toLowerCase())
+                .tag("provider", provider(analysis))
+                .tag("model", model(analysis))
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    /**
+     * End-to-end latency from submission until the analysis reached a terminal status.
+     */
+    public void finished(JobAnalysis analysis, Outcome outcome) {
+        Timer.builder("analysis.duration")
+                .description("Time from submission to COMPLETE or ERROR")
+                .tag("outcome", outcome.name().toLowerCase())
+                .tag("provider", provider(analysis))
+                .tag("model", model(analysis))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(analysis.getCreatedAt(), LocalDateTime.now()));
+    }
+
+    /**
+     * Time from submission until a worker first picked the analysis up, per tenant and lane;
+     * the tail of this is what fair scheduling keeps bounded for small tenants.
+     */
+    public void waited(JobAnalysis analysis) {
+        Timer.builder("analysis.queue.wait")
+                .description("Time from submission until a worker started the analysis")
+                .tag("tenant", tenantTag(analysis.getTenant()))
+                .tag("priority", AnalysisPriority.orDefault(analysis.getPriority()).name().toLowerCase())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.between(analysis.getCreatedAt(), LocalDateTime.now()));
+    }
+
+    /**
+     * Analyses given up on because their deadline passed before a worker started them.
+     */
+    public void expired(int count) {
+        meterRegistry.counter("analysis.expired").increment(count);
+    }
+
+    public void error(JobAnalysis analysis, Throwable error) {
+        meterRegistry.counter("analysis.errors",
+                "type", error.getClass().getSimpleName(),
+                "provider", provider(analysis)).increment();
+    }
+
+    public void prompt(JobAnalysis analysis, int characters, int tokens) {
+        summary("analysis.prompt.size", "characters", analysis).record(characters);
+        summary("analysis.prompt.tokens", "tokens", analysis).record(tokens);
+    }
+
+    public void response(JobAnalysis analysis, String response) {
+        summary("analysis.response.size", "characters", analysis).record(response != null ? response.length() : 0);
+    }
+
+    private DistributionSummary summary(String name, String unit, JobAnalysis analysis) {
+        return DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag("provider", provider(analysis))
+                .tag("model", model(analysis))
+                .register(meterRegistry);
+    }
+
+    /**
+     * The tenant as a metric tag: its name if configured, the default tenant of rows
+     * written before tenants existed, or {@code other}. Keeps the tag set bounded by
+     * configuration rather than by the number of API keys seen.
+     */
+    public String tenantTag(String tenant) {
+        if (tenant == null || AnalysisTicket.DEFAULT_TENANT.equals(tenant)) {
+            return AnalysisTicket.DEFAULT_TENANT;
+        }
+        return scheduling.getTenantWeights().containsKey(tenant) ? tenant : OTHER_TENANTS;
+    }
+
+    public static String providerTag(String provider) {
+        if (provider == null) {
+            return "unknown";
+        }
+        String normalized = provider.toUpperCase(Locale.ROOT);
+        return PROVIDERS.contains(normalized) ? normalized : OTHER;
+    }
+
+    public String modelTag(String model) {
+        if (model == null || model.isEmpty()) {
+            return "default";
+        }
+        return settings.getModels().contains(model) ? model : OTHER;
+    }
+
+    private String provider(JobAnalysis analysis) {
+        return providerTag(analysis.getProviderUsed());
+    }
+
+    private String model(JobAnalysis analysis) {
+        return modelTag(analysis.getModelUsed());
+    }
+}
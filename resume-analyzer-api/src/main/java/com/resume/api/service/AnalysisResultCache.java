@@ -0,0 +1,67 @@
+package com.resume.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.util.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Content-addressed cache of finished analysis results. Re-submitting the same resume
+ * against the same posting with the same provider and model reuses the stored JSON
+ * instead of paying for another LLM call.
+ */
+@Service
+@Slf4j
+public class AnalysisResultCache {
+
+    private final Cache<String, String> results;
+    private final boolean enabled;
+
+    public AnalysisResultCache(AnalysisProperties analysisProperties, MeterRegistry meterRegistry) {
+        AnalysisProperties.ResultCache settings = analysisProperties.getResultCache();
+        this.enabled = settings.isEnabled();
+        this.results = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "analysis.result.cache");
+    }
+
+    public String keyFor(String resumeContent, String jobDescriptionText, String provider, String model) {
+        String normalizedJob = normalize(jobDescriptionText);
+        return Hashing.sha256Hex(Hashing.sha256Hex(resumeContent != null ? resumeContent : "")
+                + '\u0000' + Hashing.sha256Hex(normalizedJob)
+                + '\u0000' + (provider != null ? provider.toUpperCase() : "")
+                + '\u0000' + (model != null ? model : ""));
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(results.getIfPresent(key));
+    }
+
+    public void put(String key, String analysisResultJson) {
+        if (enabled && analysisResultJson != null && !analysisResultJson.isBlank()) {
+            results.put(key, analysisResultJson);
+        }
+    }
+
+    /**
+     * Case and whitespace differences (copy/paste artifacts) should not defeat the cache.
+     */
+    private String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+}
@@ -0,0 +1,142 @@
+package com.resume.api.service;
+
+import com.resume.api.entity.AnalysisArtifact;
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.repository.AnalysisArtifactRepository;
+import com.resume.api.util.Keywords;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.json.JsonParserFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps the LLM result of an analysis in two places: the scores and keyword lists as small
+ * columns on {@link JobAnalysis}, which listings and status checks read, and the complete
+ * JSON (cover letter, tailored resume, ...) as a compressed {@link AnalysisArtifact} that is
+ * only loaded when the result itself is asked for.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalysisResultStore {
+
+    private static final int MAX_KEYWORDS_LENGTH = 2000;
+    private static final int MAX_LABEL_LENGTH = 32;
+
+    private final AnalysisArtifactRepository analysisArtifactRepository;
+
+    /**
+     * Sets the result on the analysis and copies its scores and keyword lists into the
+     * structured columns. The row itself is saved by the caller.
+     */
+    public void applyResult(JobAnalysis analysis, String resultJson) {
+        analysis.setAnalysisResultJson(resultJson);
+        Map<String, Object> result = parse(analysis.getId(), resultJson);
+        analysis.setAtsScore(score(result.get("atsScore")));
+        analysis.setRecruiterScore(score(result.get("recruiterScore")));
+        analysis.setMatchRatio(label(result.get("matchRatio")));
+        analysis.setSuccessProbability(label(result.get("successProbability")));
+        analysis.setMatchingKeywords(keywords(result.get("matchingKeywords")));
+        analysis.setMissingKeywords(keywords(result.get("missingKeywords")));
+    }
+
+    /**
+     * Writes the result set by {@link #applyResult} as the analysis' artifact, replacing
+     * any earlier one. The analysis must already have its ID.
+     */
+    public void saveArtifact(JobAnalysis analysis) {
+        String resultJson = analysis.getAnalysisResultJson();
+        if (resultJson == null) {
+            return;
+        }
+        analysisArtifactRepository.save(AnalysisArtifact.builder()
+                .analysisId(analysis.getId())
+                .resultJson(resultJson)
+                .resultLength(resultJson.length())
+                .jobDescriptionText(analysis.getJobDescriptionText())
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    public Optional<String> load(UUID analysisId) {
+        return analysisArtifactRepository.findById(analysisId).map(AnalysisArtifact::getResultJson);
+    }
+
+    /**
+     * The scraped job description a URL input was analyzed with, without reading the result.
+     */
+    public Optional<String> loadJobDescription(UUID analysisId) {
+        return analysisArtifactRepository.findJobDescriptionTextById(analysisId);
+    }
+
+    /**
+     * Fills in the result JSON of a COMPLETE analysis loaded from the database, for
+     * responses that return the whole analysis.
+     */
+    public JobAnalysis attach(JobAnalysis analysis) {
+        if (analysis.getStatus() == AnalysisStatus.COMPLETE && analysis.getAnalysisResultJson() == null) {
+            load(analysis.getId()).ifPresent(analysis::setAnalysisResultJson);
+        }
+        return analysis;
+    }
+
+    /**
+     * The model is asked for plain JSON but sometimes wraps it in a Markdown code fence or
+     * adds a sentence around it, so only the outermost object is parsed. A result that still
+     * does not parse is stored as is, just without structured columns.
+     */
+    private Map<String, Object> parse(UUID analysisId, String resultJson) {
+        if (resultJson == null) {
+            return Map.of();
+        }
+        int start = resultJson.indexOf('{');
+        int end = resultJson.lastIndexOf('}');
+        if (start < 0 || end < start) {
+            return Map.of();
+        }
+        try {
+            return JsonParserFactory.getJsonParser().parseMap(resultJson.substring(start, end + 1));
+        } catch (IllegalArgumentException e) {
+            log.warn("Result of analysis {} is not valid JSON, skipping structured columns: {}",
+                    analysisId, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private Integer score(Object value) {
+        if (value instanceof Number number) {
+            return (int) Math.round(number.doubleValue());
+        }
+        if (value instanceof String text) {
+            String digits = text.replaceAll("[^0-9.]", "");
+            try {
+                return digits.isEmpty() ? null : (int) Math.round(Double.parseDouble(digits));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private String label(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String text = value.toString().strip();
+        return text.length() <= MAX_LABEL_LENGTH ? text : text.substring(0, MAX_LABEL_LENGTH);
+    }
+
+    private String keywords(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return null;
+        }
+        return Keywords.join(list.stream().map(String::valueOf).toList(), MAX_KEYWORDS_LENGTH);
+    }
+}
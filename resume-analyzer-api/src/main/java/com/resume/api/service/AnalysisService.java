@@ -1,37 +1,74 @@
 package com.resume.api.service;
 
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.entity.AnalysisPriority;
 import com.resume.api.entity.JobAnalysis;
 import com.resume.api.entity.AnalysisStatus;
 import com.resume.api.entity.Resume;
+import com.resume.api.entity.ResumeStatus;
+import com.resume.api.event.AnalysisSubmittedEvent;
 import com.resume.api.repository.JobAnalysisRepository;
 import com.resume.api.repository.ResumeRepository;
+import com.resume.api.util.Hashing;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AnalysisService {
 
+    /**
+     * One job description of a batch, either pasted text or a URL to scrape.
+     */
+    public record BatchJob(String jobDescription, boolean isUrl) {
+    }
+
+    /**
+     * How a submission is scheduled against the caller's other work. Both fields are optional:
+     * the priority defaults to NORMAL and the maximum wait to
+     * {@code analysis.scheduling.default-max-wait}. The tenant is not the caller's to pick.
+     */
+    public record Scheduling(AnalysisPriority priority, Long maxWaitSeconds) {
+
+        public static final Scheduling DEFAULT = new Scheduling(null, null);
+    }
+
     private final ResumeRepository resumeRepository;
     private final JobAnalysisRepository jobAnalysisRepository;
     private final ScraperService scraperService;
+    private final AnalysisResultCache analysisResultCache;
+    private final AnalysisResultStore analysisResultStore;
+    private final SearchService searchService;
+    private final KeywordScoringService keywordScoringService;
+    private final AnalysisMetrics analysisMetrics;
+    private final AnalysisProperties analysisProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    @Qualifier("scrapeExecutor")
+    private final ThreadPoolTaskExecutor scrapeExecutor;
 
     /**
      * Phase 1: Fast endpoint - validates and creates pending analysis record
      * Returns immediately without waiting for AI processing
      */
-    public JobAnalysis initiateAnalysis(UUID resumeId, String jobDescriptionInput, boolean isUrl, 
-                                       String provider, String apiKey, String model) throws IOException {
-        
+    public JobAnalysis initiateAnalysis(UUID resumeId, String jobDescriptionInput, boolean isUrl,
+                                       String provider, String apiKey, String model,
+                                       boolean skipCache, Scheduling scheduling) throws IOException {
+
         // 1. Validate Resume exists
-        Resume resume = resumeRepository.findById(resumeId)
-                .orElseThrow(() -> new RuntimeException("Resume not found"));
+        Resume resume = findResume(resumeId);
 
         log.info("Initiating analysis for resume: {}", resumeId);
 
@@ -41,35 +78,181 @@ public class AnalysisService {
         }
 
         // 3. Try to scrape if URL (fail gracefully and store original URL)
-        String jobDescriptionText = jobDescriptionInput;
-        if (isUrl) {
-            try {
-                log.info("Pre-scraping job description from URL to validate...");
-                jobDescriptionText = scraperService.scrapeJobDescription(jobDescriptionInput);
-                log.info("URL scraped successfully, length: {}", jobDescriptionText.length());
-            } catch (Exception e) {
-                log.warn("Failed to pre-scrape URL, will retry during processing: {}", e.getMessage());
-                // Don't fail here, let the background processor retry
+        String jobDescriptionText = isUrl ? preScrape(jobDescriptionInput) : jobDescriptionInput;
+
+        // 4-6. Cache lookup, keyword pre-score and the PENDING (or cached COMPLETE) row
+        JobAnalysis analysis = newAnalysis(resume, jobDescriptionInput, jobDescriptionText, isUrl,
+                provider, apiKey, model, skipCache, null, null);
+        schedule(analysis, scheduling);
+
+        JobAnalysis savedAnalysis = jobAnalysisRepository.save(analysis);
+        log.info("Analysis initiated with ID: {}, status: {}{}", savedAnalysis.getId(), savedAnalysis.getStatus(),
+                savedAnalysis.getStatus() == AnalysisStatus.COMPLETE ? " (served from result cache)" : "");
+
+        // 7. Hand the new row straight to the workers once it is committed
+        submit(savedAnalysis);
+
+        return savedAnalysis;
+    }
+
+    /**
+     * Batch variant: one resume against many job descriptions. The resume is loaded and
+     * validated once, URLs are scraped in parallel and all rows are written in a single
+     * batched insert. The analyses then run on the shared worker pool and provider limits
+     * like any other.
+     */
+    public List<JobAnalysis> initiateBatch(UUID resumeId, List<BatchJob> jobs,
+                                           String provider, String apiKey, String model,
+                                           boolean skipCache, Scheduling scheduling) {
+        if (jobs == null || jobs.isEmpty()) {
+            throw new IllegalArgumentException("A batch needs at least one job description");
+        }
+        int maxJobs = analysisProperties.getBatch().getMaxJobs();
+        if (jobs.size() > maxJobs) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxJobs + " job descriptions");
+        }
+        for (BatchJob job : jobs) {
+            if (job == null || job.jobDescription() == null || job.jobDescription().trim().isEmpty()) {
+                throw new IllegalArgumentException("Job description cannot be empty");
             }
         }
 
-        // 4. Create PENDING analysis record
+        Resume resume = findResume(resumeId);
+
+        UUID batchId = UUID.randomUUID();
+        log.info("Initiating batch {} of {} analyses for resume: {}", batchId, jobs.size(), resumeId);
+
+        // Scrape all URLs at once; each falls back to its URL like the single-job path
+        List<CompletableFuture<String>> texts = new ArrayList<>(jobs.size());
+        for (BatchJob job : jobs) {
+            texts.add(job.isUrl()
+                    ? CompletableFuture.supplyAsync(() -> preScrape(job.jobDescription()), scrapeExecutor)
+                    : CompletableFuture.completedFuture(job.jobDescription()));
+        }
+        CompletableFuture.allOf(texts.toArray(CompletableFuture[]::new)).join();
+
+        List<JobAnalysis> analyses = new ArrayList<>(jobs.size());
+        for (int i = 0; i < jobs.size(); i++) {
+            BatchJob job = jobs.get(i);
+            JobAnalysis analysis = newAnalysis(resume, job.jobDescription(), texts.get(i).join(), job.isUrl(),
+                    provider, apiKey, model, skipCache, batchId, i);
+            schedule(analysis, scheduling);
+            analyses.add(analysis);
+        }
+
+        List<JobAnalysis> savedAnalyses = jobAnalysisRepository.saveAll(analyses);
+        long fromCache = savedAnalyses.stream().filter(a -> a.getStatus() == AnalysisStatus.COMPLETE).count();
+        log.info("Batch {} initiated: {} analyses, {} served from result cache", batchId, savedAnalyses.size(), fromCache);
+
+        savedAnalyses.forEach(this::submit);
+        return savedAnalyses;
+    }
+
+    private Resume findResume(UUID resumeId) {
+        Resume resume = resumeRepository.findById(resumeId)
+                .orElseThrow(() -> new RuntimeException("Resume not found"));
+        if (resume.getStatus() == ResumeStatus.FAILED) {
+            throw new IllegalArgumentException("Resume could not be read: " + resume.getErrorMessage());
+        }
+        return resume;
+    }
+
+    /**
+     * The scrape cache hands this text to the background processor, so it is fetched once.
+     * Returns the URL itself when scraping fails; the processor retries.
+     */
+    private String preScrape(String url) {
+        try {
+            log.info("Pre-scraping job description from URL to validate...");
+            String text = scraperService.scrapeJobDescription(url);
+            log.info("URL scraped successfully, length: {}", text.length());
+            return text;
+        } catch (Exception e) {
+            log.warn("Failed to pre-scrape URL, will retry during processing: {}", e.getMessage());
+            // Don't fail here, let the background processor retry
+            return url;
+        }
+    }
+
+    private JobAnalysis newAnalysis(Resume resume, String jobDescriptionInput, String jobDescriptionText,
+                                    boolean isUrl, String provider, String apiKey, String model,
+                                    boolean skipCache, UUID batchId, Integer batchPosition) {
+        // 4. Reuse an identical earlier result when we already have the job text
+        // An EXTRACTING resume has no text yet; the processor waits for it, then scores and caches
+        boolean haveJobText = !isUrl || !jobDescriptionText.equals(jobDescriptionInput);
+        boolean haveResumeText = resume.getStatus() != ResumeStatus.EXTRACTING;
+        String modelUsed = model != null && !model.isEmpty() ? model : "default";
+        String cachedResult = null;
+        if (!skipCache && haveJobText && haveResumeText) {
+            String cacheKey = analysisResultCache.keyFor(resume.getContent(), jobDescriptionText, provider, modelUsed);
+            cachedResult = analysisResultCache.get(cacheKey).orElse(null);
+        }
+
+        // 5. Create PENDING analysis record (or COMPLETE straight away on a cache hit)
         JobAnalysis analysis = JobAnalysis.builder()
                 .resume(resume)
+                .batchId(batchId)
+                .batchPosition(batchPosition)
                 .jobDescriptionEntry(jobDescriptionInput) // Store original input
-                .analysisResultJson(null) // Will be filled by background processor
+                .jobDescriptionPreview(preview(jobDescriptionInput))
                 .providerUsed(provider)
-                .modelUsed(model != null && !model.isEmpty() ? model : "default")
+                .modelUsed(modelUsed)
                 .apiKey(apiKey) // Store API key for background processing
-                .status(AnalysisStatus.PENDING)
+                .skipCache(skipCache)
+                .status(cachedResult != null ? AnalysisStatus.COMPLETE : AnalysisStatus.PENDING)
                 .errorMessage(null)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
+        if (cachedResult != null) {
+            analysisResultStore.applyResult(analysis, cachedResult); // Otherwise filled by background processor
+        }
+        if (isUrl && haveJobText) {
+            analysis.setJobDescriptionText(jobDescriptionText); // Stored with the result, for search
+        }
 
-        JobAnalysis savedAnalysis = jobAnalysisRepository.save(analysis);
-        log.info("Analysis initiated with ID: {}, status: PENDING", savedAnalysis.getId());
+        // 6. Instant keyword pre-score; a URL that could not be scraped yet is scored by the processor
+        if (haveJobText && haveResumeText) {
+            keywordScoringService.applyTo(analysis, resume.getContent(), jobDescriptionText);
+        }
+        return analysis;
+    }
 
-        return savedAnalysis;
+    /**
+     * Sets the tenant, lane and deadline the worker queue schedules the analysis by. The
+     * tenant is derived from the API key, so a caller cannot spread its work over made-up
+     * tenants to get more than one share of the workers.
+     */
+    private void schedule(JobAnalysis analysis, Scheduling scheduling) {
+        Scheduling requested = scheduling != null ? scheduling : Scheduling.DEFAULT;
+        analysis.setTenant("key-" + Hashing.sha256Hex(analysis.getApiKey() != null ? analysis.getApiKey() : "").substring(0, 16));
+        analysis.setPriority(AnalysisPriority.orDefault(requested.priority()));
+
+        Duration maxWait = analysisProperties.getScheduling().getDefaultMaxWait();
+        if (requested.maxWaitSeconds() != null) {
+            if (requested.maxWaitSeconds() <= 0) {
+                throw new IllegalArgumentException("maxWaitSeconds must be positive");
+            }
+            Duration asked = Duration.ofSeconds(requested.maxWaitSeconds());
+            maxWait = maxWait == null || asked.compareTo(maxWait) < 0 ? asked : maxWait;
+        }
+        if (maxWait != null) {
+            analysis.setDeadlineAt(analysis.getCreatedAt().plus(maxWait));
+        }
+    }
+
+    private void submit(JobAnalysis savedAnalysis) {
+        if (savedAnalysis.getStatus() == AnalysisStatus.PENDING) {
+            eventPublisher.publishEvent(AnalysisSubmittedEvent.of(savedAnalysis));
+        } else {
+            analysisResultStore.saveArtifact(savedAnalysis);
+            searchService.index(savedAnalysis);
+            analysisMetrics.finished(savedAnalysis, AnalysisMetrics.Outcome.CACHED);
+        }
+    }
+
+    private String preview(String jobDescriptionInput) {
+        String collapsed = jobDescriptionInput.trim().replaceAll("\\s+", " ");
+        return collapsed.length() <= 200 ? collapsed : collapsed.substring(0, 197) + "...";
     }
 }
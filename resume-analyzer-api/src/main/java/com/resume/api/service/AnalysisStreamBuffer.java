@@ -0,0 +1,48 @@
+package com.resume.api.service;
+
+import com.resume.api.event.AnalysisOutputEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the partial output of analyses that are being generated through a streaming model.
+ * Tokens only live in memory; the final JSON is persisted once by the processor, so
+ * streaming adds no database writes.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnalysisStreamBuffer {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<UUID, StringBuffer> buffers = new ConcurrentHashMap<>();
+
+    public void start(UUID analysisId) {
+        buffers.put(analysisId, new StringBuffer());
+    }
+
+    public void append(UUID analysisId, String token) {
+        StringBuffer buffer = buffers.get(analysisId);
+        if (buffer != null) {
+            buffer.append(token);
+            eventPublisher.publishEvent(new AnalysisOutputEvent(analysisId, token));
+        }
+    }
+
+    /**
+     * Output generated so far, or empty when the analysis is not currently streaming.
+     */
+    public Optional<String> snapshot(UUID analysisId) {
+        StringBuffer buffer = buffers.get(analysisId);
+        return buffer != null ? Optional.of(buffer.toString()) : Optional.empty();
+    }
+
+    public void finish(UUID analysisId) {
+        buffers.remove(analysisId);
+    }
+}
@@ -0,0 +1,137 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.dto.AnalysisTicket;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The analyses this node has taken on but not started, ordered by start-time fair queuing
+ * across tenants instead of arrival. Every tenant with queued work advances its own virtual
+ * clock by {@code 1 / tenant weight} per analysis started, and the tenant whose clock is
+ * furthest behind goes next: a tenant that queues 500 analyses gets its share of the
+ * workers, not all of them, and a tenant arriving later starts on par with the current
+ * virtual time instead of behind the backlog. Priority is the caller's to pick, so it only
+ * orders work within a tenant's share and never enlarges the share itself.
+ */
+@Service
+public class FairAnalysisQueue {
+
+    /**
+     * An analysis waiting for a worker. {@code claimed} is true when this node already
+     * holds its lease.
+     */
+    public record Entry(AnalysisTicket ticket, boolean claimed, long sequence) {
+    }
+
+    // Within a tenant: higher lane first, then the earliest deadline, then arrival
+    private static final Comparator<Entry> TENANT_ORDER = Comparator
+            .comparingInt((Entry e) -> -e.ticket().priority().weight())
+            .thenComparing(e -> e.ticket().deadlineAt(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(e -> e.ticket().createdAt())
+            .thenComparingLong(Entry::sequence);
+
+    private static final class TenantQueue {
+        final PriorityQueue<Entry> entries = new PriorityQueue<>(TENANT_ORDER);
+        final double weight;
+        double finishTag;
+
+        TenantQueue(double weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final AnalysisProperties.Scheduling settings;
+    private final MeterRegistry meterRegistry;
+    private final AnalysisMetrics analysisMetrics;
+    private final Map<String, TenantQueue> tenants = new HashMap<>();
+    // Gauge state per tenant tag, which only configured tenants get; kept so the gauges stay registered at 0
+    private final Map<String, AtomicInteger> depths = new ConcurrentHashMap<>();
+    private double virtualTime;
+    private long sequence;
+
+    public FairAnalysisQueue(AnalysisProperties analysisProperties, MeterRegistry meterRegistry,
+                             AnalysisMetrics analysisMetrics) {
+        this.settings = analysisProperties.getScheduling();
+        this.meterRegistry = meterRegistry;
+        this.analysisMetrics = analysisMetrics;
+    }
+
+    /**
+     * Queues an analysis, or refuses it once its tenant has {@code tenantQueueLimit}
+     * analyses queued here; the caller leaves it PENDING in the database. This keeps a
+     * large backlog in the database instead of in front of other tenants' work.
+     */
+    public synchronized boolean offer(AnalysisTicket ticket, boolean claimed) {
+        TenantQueue queue = tenants.computeIfAbsent(ticket.tenant(), tenant -> new TenantQueue(weightOf(tenant)));
+        if (queue.entries.size() >= settings.getTenantQueueLimit()) {
+            return false;
+        }
+        if (queue.entries.isEmpty()) {
+            // An idle tenant does not bank credit for the time it had nothing queued
+            queue.finishTag = Math.max(queue.finishTag, virtualTime);
+        }
+        queue.entries.add(new Entry(ticket, claimed, sequence++));
+        depth(ticket.tenant()).incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Takes the analysis that should start next, or null when nothing is queued.
+     */
+    public synchronized Entry poll() {
+        String nextTenant = null;
+        TenantQueue next = null;
+        Iterator<Map.Entry<String, TenantQueue>> it = tenants.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, TenantQueue> candidate = it.next();
+            TenantQueue queue = candidate.getValue();
+            if (queue.entries.isEmpty()) {
+                if (queue.finishTag <= virtualTime) {
+                    it.remove();
+                }
+                continue;
+            }
+            if (next == null || queue.finishTag < next.finishTag
+                    || (queue.finishTag == next.finishTag
+                        && TENANT_ORDER.compare(queue.entries.peek(), next.entries.peek()) < 0)) {
+                nextTenant = candidate.getKey();
+                next = queue;
+            }
+        }
+        if (next == null) {
+            return null;
+        }
+
+        Entry entry = next.entries.poll();
+        virtualTime = Math.max(virtualTime, next.finishTag);
+        next.finishTag = virtualTime + 1.0 / next.weight;
+        depth(nextTenant).decrementAndGet();
+        return entry;
+    }
+
+    private double weightOf(String tenant) {
+        Double weight = settings.getTenantWeights().get(tenant);
+        return weight != null && weight > 0 ? weight : 1.0;
+    }
+
+    private AtomicInteger depth(String tenant) {
+        return depths.computeIfAbsent(analysisMetrics.tenantTag(tenant), t -> {
+            AtomicInteger depth = new AtomicInteger();
+            Gauge.builder("analysis.tenant.queued", depth, AtomicInteger::get)
+                    .description("Analyses waiting for a worker on this node, per configured tenant")
+                    .tag("tenant", t)
+                    .register(meterRegistry);
+            return depth;
+        });
+    }
+}
@@ -0,0 +1,355 @@
+package com.resume.api.service;
+
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.util.Keywords;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Deterministic keyword pre-score, computed in-process in milliseconds so every analysis
+ * has a score long before the LLM answers. Both documents are tokenized in one pass over
+ * their characters and matched against the bundled skill dictionary; tokens and terms are
+ * plain int IDs, so scoring a request allocates little more than two count arrays.
+ */
+@Service
+@Slf4j
+public class KeywordScoringService {
+
+    public record KeywordScore(int score, List<String> matching, List<String> missing) {
+    }
+
+    private static final String DICTIONARY = "keywords/skills.txt";
+    private static final int UNKNOWN = -1;
+    private static final int ROOT = 0;
+    // No dictionary token is this long; longer runs (URLs, hashes) are skipped without a lookup
+    private static final int MAX_TOKEN_LENGTH = 32;
+    // A term repeated in the posting weighs more, up to this many mentions
+    private static final int MAX_TERM_WEIGHT = 3;
+    // Matching/missing lists are stored comma-separated and trimmed to fit their columns
+    private static final int MAX_KEYWORDS_LENGTH = 1000;
+
+    private final String[] termNames; // term ID -> canonical name
+    private final TokenTable vocabulary; // token -> token ID
+    private final LongIntTable transitions; // (trie node, token ID) -> child node
+    private final int[] nodeTerms; // trie node -> term ID ending there, or UNKNOWN
+    private final int maxPhraseTokens;
+
+    public KeywordScoringService() {
+        Map<String, Integer> tokenIds = new HashMap<>();
+        Map<Long, Integer> edges = new HashMap<>();
+        List<Integer> terminals = new ArrayList<>(List.of(UNKNOWN));
+        List<String> names = new ArrayList<>();
+        int longestPhrase = 1;
+
+        for (String line : readDictionary()) {
+            String entry = line.trim();
+            if (entry.isEmpty() || entry.startsWith("# ") || entry.equals("#")) {
+                continue;
+            }
+            String[] variants = entry.split("\\|");
+            int termId = names.size();
+            names.add(variants[0].trim());
+
+            for (String variant : variants) {
+                List<String> tokens = tokensOf(variant);
+                if (tokens.isEmpty()) {
+                    continue;
+                }
+                int node = ROOT;
+                for (String token : tokens) {
+                    int tokenId = tokenIds.computeIfAbsent(token, t -> tokenIds.size());
+                    long edge = edgeKey(node, tokenId);
+                    Integer child = edges.get(edge);
+                    if (child == null) {
+                        child = terminals.size();
+                        terminals.add(UNKNOWN);
+                        edges.put(edge, child);
+                    }
+                    node = child;
+                }
+                if (terminals.get(node) == UNKNOWN) {
+                    terminals.set(node, termId); // First entry wins if two terms share a spelling
+                }
+                longestPhrase = Math.max(longestPhrase, tokens.size());
+            }
+        }
+
+        this.termNames = names.toArray(String[]::new);
+        this.vocabulary = new TokenTable(tokenIds);
+        this.transitions = new LongIntTable(edges);
+        this.nodeTerms = terminals.stream().mapToInt(Integer::intValue).toArray();
+        this.maxPhraseTokens = longestPhrase;
+        log.info("Loaded keyword dictionary: {} terms, {} distinct tokens", termNames.length, tokenIds.size());
+    }
+
+    /**
+     * Scores the resume against the job description. Empty when the job description
+     * mentions no dictionary term, so there is nothing meaningful to score.
+     */
+    public Optional<KeywordScore> score(String resumeText, String jobDescriptionText) {
+        int[] jobCounts = countTerms(jobDescriptionText);
+        int[] resumeCounts = countTerms(resumeText);
+
+        int totalWeight = 0;
+        int matchedWeight = 0;
+        for (int termId = 0; termId < jobCounts.length; termId++) {
+            if (jobCounts[termId] == 0) {
+                continue;
+            }
+            int weight = Math.min(jobCounts[termId], MAX_TERM_WEIGHT);
+            totalWeight += weight;
+            if (resumeCounts[termId] > 0) {
+                matchedWeight += weight;
+            }
+        }
+        if (totalWeight == 0) {
+            return Optional.empty();
+        }
+
+        // Heaviest terms first, dictionary order within a weight
+        List<String> matching = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (int weight = MAX_TERM_WEIGHT; weight >= 1; weight--) {
+            for (int termId = 0; termId < jobCounts.length; termId++) {
+                if (jobCounts[termId] == 0 || Math.min(jobCounts[termId], MAX_TERM_WEIGHT) != weight) {
+                    continue;
+                }
+                (resumeCounts[termId] > 0 ? matching : missing).add(termNames[termId]);
+            }
+        }
+
+        int score = (int) Math.round(100.0 * matchedWeight / totalWeight);
+        return Optional.of(new KeywordScore(score, matching, missing));
+    }
+
+    /**
+     * Stores the pre-score on the analysis; leaves it untouched when there is nothing to score.
+     */
+    public void applyTo(JobAnalysis analysis, String resumeText, String jobDescriptionText) {
+        long started = System.nanoTime();
+        score(resumeText, jobDescriptionText).ifPresent(result -> {
+            analysis.setKeywordScore(result.score());
+            analysis.setKeywordMatches(Keywords.join(result.matching(), MAX_KEYWORDS_LENGTH));
+            analysis.setKeywordGaps(Keywords.join(result.missing(), MAX_KEYWORDS_LENGTH));
+        });
+        log.debug("Keyword pre-score computed in {} us", (System.nanoTime() - started) / 1000);
+    }
+
+    private int[] countTerms(String text) {
+        TermCounter counter = new TermCounter();
+        if (text != null) {
+            scan(text, counter);
+            counter.flush();
+        }
+        return counter.counts;
+    }
+
+    private static long edgeKey(int node, int tokenId) {
+        return ((long) node << 32) | tokenId;
+    }
+
+    private interface TokenSink {
+        /**
+         * Receives one lower-cased token. {@code length} may exceed the buffer for
+         * over-long tokens, whose characters were only partly kept.
+         */
+        void accept(char[] token, int length, int hash);
+    }
+
+    /**
+     * Splits text into lower-cased tokens without regular expressions or per-token strings.
+     * Letters, digits, '+' and '#' form tokens ("c++", "c#"); a '.' joins when a letter or
+     * digit follows ("node.js", ".net"); everything else separates, so "CI/CD" and
+     * "objective-c" become two tokens each. The hash matches {@link String#hashCode()} of
+     * the token.
+     */
+    private static void scan(String text, TokenSink sink) {
+        char[] buffer = new char[MAX_TOKEN_LENGTH];
+        int length = 0;
+        int hash = 0;
+        int end = text.length();
+        for (int i = 0; i < end; i++) {
+            char c = text.charAt(i);
+            boolean tokenChar = Character.isLetterOrDigit(c) || c == '+' || c == '#'
+                    || (c == '.' && i + 1 < end && Character.isLetterOrDigit(text.charAt(i + 1)));
+            if (tokenChar) {
+                char lower = Character.toLowerCase(c);
+                if (length < MAX_TOKEN_LENGTH) {
+                    buffer[length] = lower;
+                }
+                length++;
+                hash = 31 * hash + lower;
+            } else if (length > 0) {
+                sink.accept(buffer, length, hash);
+                length = 0;
+                hash = 0;
+            }
+        }
+        if (length > 0) {
+            sink.accept(buffer, length, hash);
+        }
+    }
+
+    private static List<String> tokensOf(String term) {
+        List<String> tokens = new ArrayList<>();
+        scan(term, (token, length, hash) -> {
+            if (length > MAX_TOKEN_LENGTH) {
+                throw new IllegalStateException("Dictionary token too long: " + term);
+            }
+            tokens.add(new String(token, 0, length));
+        });
+        return tokens;
+    }
+
+    private static List<String> readDictionary() {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(DICTIONARY).getInputStream(), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("Keyword dictionary " + DICTIONARY + " could not be read", e);
+        }
+    }
+
+    /**
+     * Greedy longest-match of dictionary phrases over the token stream, holding only the
+     * last {@code maxPhraseTokens} token IDs in a ring buffer.
+     */
+    private final class TermCounter implements TokenSink {
+        private final int[] counts = new int[termNames.length];
+        private final int[] window = new int[maxPhraseTokens];
+        private int head;
+        private int size;
+
+        @Override
+        public void accept(char[] token, int length, int hash) {
+            int tokenId = length > MAX_TOKEN_LENGTH ? UNKNOWN : vocabulary.find(token, length, hash);
+            window[(head + size) % window.length] = tokenId;
+            size++;
+            if (size == window.length) {
+                matchAtHead();
+            }
+        }
+
+        private void flush() {
+            while (size > 0) {
+                matchAtHead();
+            }
+        }
+
+        private void matchAtHead() {
+            int node = ROOT;
+            int matchedTerm = UNKNOWN;
+            int matchedLength = 1;
+            for (int k = 0; k < size; k++) {
+                int tokenId = window[(head + k) % window.length];
+                if (tokenId == UNKNOWN) {
+                    break;
+                }
+                node = transitions.get(edgeKey(node, tokenId));
+                if (node == UNKNOWN) {
+                    break;
+                }
+                if (nodeTerms[node] != UNKNOWN) {
+                    matchedTerm = nodeTerms[node];
+                    matchedLength = k + 1;
+                }
+            }
+            if (matchedTerm != UNKNOWN) {
+                counts[matchedTerm]++;
+            }
+            head = (head + matchedLength) % window.length;
+            size -= matchedLength;
+        }
+    }
+
+    /**
+     * Open-addressing table from token characters to token ID, probed straight from the
+     * scanner's buffer.
+     */
+    private static final class TokenTable {
+        private final char[][] keys;
+        private final int[] ids;
+        private final int mask;
+
+        private TokenTable(Map<String, Integer> tokenIds) {
+            int capacity = capacityFor(tokenIds.size());
+            this.keys = new char[capacity][];
+            this.ids = new int[capacity];
+            this.mask = capacity - 1;
+            tokenIds.forEach((token, id) -> {
+                int slot = spread(token.hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = token.toCharArray();
+                ids[slot] = id;
+            });
+        }
+
+        private int find(char[] token, int length, int hash) {
+            for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                if (Arrays.equals(keys[slot], 0, keys[slot].length, token, 0, length)) {
+                    return ids[slot];
+                }
+            }
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Open-addressing long -> int table holding the phrase trie's edges.
+     */
+    private static final class LongIntTable {
+        private static final long EMPTY = -1L;
+
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        private LongIntTable(Map<Long, Integer> entries) {
+            int capacity = capacityFor(entries.size());
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+            this.mask = capacity - 1;
+            Arrays.fill(keys, EMPTY);
+            entries.forEach((key, value) -> {
+                int slot = spread(Long.hashCode(key)) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = value;
+            });
+        }
+
+        private int get(long key) {
+            for (int slot = spread(Long.hashCode(key)) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return UNKNOWN;
+        }
+    }
+
+    // Power of two that keeps the load factor at or below one half
+    private static int capacityFor(int entries) {
+        return Integer.highestOneBit(Math.max(entries, 1) * 2) << 1;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,74 @@
+package com.resume.api.service;
+
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.repository.JobAnalysisRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Moves results written before they were split off {@code job_analyses} into compressed
+ * artifacts and structured columns, then clears the old {@code analysis_result_json}
+ * column. Schema updates never drop that column, so it is read with plain SQL; a database
+ * created after the split has no such column and there is nothing to do.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyResultMigration {
+
+    private static final int BATCH_SIZE = 100;
+    private static final String SELECT_LEGACY = "select id, analysis_result_json from job_analyses "
+            + "where analysis_result_json is not null fetch first " + BATCH_SIZE + " rows only";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobAnalysisRepository jobAnalysisRepository;
+    private final AnalysisResultStore analysisResultStore;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        int migrated = 0;
+        try {
+            List<Map.Entry<UUID, String>> rows;
+            while (!(rows = jdbcTemplate.query(SELECT_LEGACY, (rs, rowNum) ->
+                    Map.entry(rs.getObject("id", UUID.class), rs.getString("analysis_result_json")))).isEmpty()) {
+                for (Map.Entry<UUID, String> row : rows) {
+                    migrate(row.getKey(), row.getValue());
+                    migrated++;
+                }
+            }
+        } catch (DataAccessException e) {
+            if (migrated == 0) {
+                log.debug("No legacy analysis results to migrate: {}", e.getMessage());
+            } else {
+                log.error("Migrating legacy analysis results stopped after {} rows", migrated, e);
+            }
+            return;
+        }
+        if (migrated > 0) {
+            log.info("Moved {} legacy analysis results into compressed artifacts", migrated);
+        }
+    }
+
+    private void migrate(UUID analysisId, String resultJson) {
+        JobAnalysis analysis = jobAnalysisRepository.findById(analysisId).orElse(null);
+        if (analysis != null) {
+            analysisResultStore.applyResult(analysis, resultJson);
+            analysisResultStore.saveArtifact(analysis);
+            // The structured columns are new in the representation, so cached ETags must not match
+            analysis.setUpdatedAt(LocalDateTime.now());
+            jobAnalysisRepository.save(analysis);
+        }
+        // Cleared even for a vanished row, so the loop always makes progress
+        jdbcTemplate.update("update job_analyses set analysis_result_json = null where id = ?", analysisId);
+    }
+}
@@ -1,20 +1,173 @@
 package com.resume.api.service;
 
+import com.resume.api.config.ResumeProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 @Service
+@Slf4j
 public class PdfExtractionService {
 
+    private final ResumeProperties.Pdf settings;
+    private final ThreadPoolTaskExecutor pdfPageExecutor;
+    private final MeterRegistry meterRegistry;
+
+    public PdfExtractionService(ResumeProperties resumeProperties,
+                                @Qualifier("pdfPageExecutor") ThreadPoolTaskExecutor pdfPageExecutor,
+                                MeterRegistry meterRegistry) {
+        this.settings = resumeProperties.getPdf();
+        this.pdfPageExecutor = pdfPageExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Spools the upload to a temp file so the document is parsed from disk rather than
+     * from a heap copy of the whole file.
+     */
     public String extractTextFromPdf(InputStream inputStream) throws IOException {
-        try (PDDocument document = Loader.loadPDF(inputStream.readAllBytes())) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
+        Path spool = Files.createTempFile("resume-upload-", ".pdf");
+        try {
+            try (OutputStream out = Files.newOutputStream(spool)) {
+                copyWithLimit(inputStream, out, settings.getMaxSize().toBytes());
+            }
+            return extractTextFromPdf(spool);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    public String extractTextFromPdf(Path pdfFile) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            String text = extract(pdfFile);
+            outcome = "success";
+            return text;
+        } finally {
+            sample.stop(Timer.builder("pdf.extraction")
+                    .description("Time to load a PDF and strip its text")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private String extract(Path pdfFile) throws IOException {
+        long size = Files.size(pdfFile);
+        if (size > settings.getMaxSize().toBytes()) {
+            throw new IllegalArgumentException("PDF exceeds the maximum size of " + settings.getMaxSize());
+        }
+
+        int pageCount;
+        int chunkSize = Math.max(1, settings.getPagesPerChunk());
+        List<Future<String>> chunks = new ArrayList<>();
+        String firstChunk;
+
+        try (PDDocument document = load(pdfFile)) {
+            pageCount = document.getNumberOfPages();
+            DistributionSummary.builder("pdf.pages")
+                    .description("Pages per uploaded PDF")
+                    .register(meterRegistry)
+                    .record(pageCount);
+            if (pageCount > settings.getMaxPages()) {
+                throw new IllegalArgumentException(
+                        "PDF has " + pageCount + " pages, the maximum is " + settings.getMaxPages());
+            }
+
+            // PDDocument is not thread-safe: every other range is stripped from its own
+            // file-backed instance while this thread handles the first one.
+            for (int start = chunkSize + 1; start <= pageCount; start += chunkSize) {
+                int from = start;
+                int to = Math.min(pageCount, start + chunkSize - 1);
+                chunks.add(pdfPageExecutor.submit(() -> stripRange(pdfFile, from, to)));
+            }
+            firstChunk = strip(document, 1, Math.min(pageCount, chunkSize));
+        } catch (IOException | RuntimeException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            throw e;
+        }
+
+        StringBuilder text = new StringBuilder(firstChunk);
+        for (Future<String> chunk : chunks) {
+            text.append(await(chunk));
+        }
+        log.debug("Extracted {} characters from {} pages ({} bytes)", text.length(), pageCount, size);
+        return text.toString();
+    }
+
+    private String stripRange(Path pdfFile, int from, int to) throws IOException {
+        try (PDDocument document = load(pdfFile)) {
+            return strip(document, from, to);
+        }
+    }
+
+    private String strip(PDDocument document, int from, int to) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(from);
+        stripper.setEndPage(to);
+        return stripper.getText(document);
+    }
+
+    private PDDocument load(Path pdfFile) throws IOException {
+        RandomAccessRead source = settings.isMemoryMapped()
+                ? new RandomAccessReadMemoryMappedFile(pdfFile)
+                : new RandomAccessReadBufferedFile(pdfFile.toFile());
+        try {
+            // The document takes ownership of the source and closes it together with itself
+            return Loader.loadPDF(source,
+                    MemoryUsageSetting.setupMixed(settings.getScratchMemory().toBytes()).streamCache);
+        } catch (IOException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    private String await(Future<String> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting PDF text", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Failed to extract PDF text: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void copyWithLimit(InputStream in, OutputStream out, long maxBytes) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new IllegalArgumentException("PDF exceeds the maximum size of " + settings.getMaxSize());
+            }
+            out.write(buffer, 0, read);
         }
     }
 }
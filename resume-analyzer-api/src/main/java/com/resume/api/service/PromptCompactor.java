@@ -0,0 +1,283 @@
+package com.resume.api.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.resume.api.config.AnalysisProperties;
+import dev.langchain4j.model.openai.OpenAiTokenizer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Shrinks the resume and job description before they go into the prompt: whitespace and
+ * boilerplate lines (cookie banners, share links, copyright) are dropped, and a document
+ * over its token budget keeps its most relevant sections (requirements, experience) and
+ * loses the least relevant ones (benefits, about us, hobbies) first.
+ */
+@Service
+@Slf4j
+public class PromptCompactor {
+
+    public record CompactedInput(String resumeText, String jobDescriptionText,
+                                 int resumeTokensBefore, int resumeTokensAfter,
+                                 int jobDescriptionTokensBefore, int jobDescriptionTokensAfter) {
+    }
+
+    private enum Document { RESUME, JOB_DESCRIPTION }
+
+    private record Section(int priority, List<String> lines) {
+    }
+
+    // Gemini only counts tokens through a network call; this is its documented rule of thumb
+    private static final int GEMINI_CHARS_PER_TOKEN = 4;
+    private static final String DEFAULT_OPENAI_MODEL = "gpt-4o";
+    private static final int MAX_HEADING_LENGTH = 60;
+    private static final int MAX_HEADING_WORDS = 5;
+    private static final String BULLETS = "-*\u2022\u00b7\u2013\u25aa\u25cf\u25cb";
+    private static final int MAX_BOILERPLATE_LINE_LENGTH = 100;
+    private static final int LOWEST_PRIORITY = 4;
+
+    private static final List<String> BOILERPLATE = List.of(
+            "cookie", "cookies", "accept all", "privacy policy", "terms of use", "terms of service", "all rights reserved",
+            "\u00a9", "sign in", "log in", "create alert", "job alert", "job alerts", "share this job", "share on", "back to jobs",
+            "skip to main content", "similar jobs", "report this job", "powered by");
+
+    // Heading keywords by priority; 0 is kept longest. Checked in order, first match wins.
+    private static final Map<Document, List<Map.Entry<String, Integer>>> HEADINGS = Map.of(
+            Document.JOB_DESCRIPTION, List.of(
+                    Map.entry("requirement", 0), Map.entry("qualification", 0), Map.entry("must have", 0),
+                    Map.entry("you'll need", 0), Map.entry("you will need", 0), Map.entry("what you bring", 0),
+                    Map.entry("skills", 0), Map.entry("experience", 0),
+                    Map.entry("responsibilit", 1), Map.entry("what you'll do", 1), Map.entry("what you will do", 1),
+                    Map.entry("the role", 1), Map.entry("duties", 1),
+                    Map.entry("nice to have", 2), Map.entry("preferred", 2), Map.entry("bonus", 2),
+                    Map.entry("benefit", 4), Map.entry("perks", 4), Map.entry("compensation", 4),
+                    Map.entry("salary", 4), Map.entry("about us", 4), Map.entry("about the company", 4),
+                    Map.entry("who we are", 4), Map.entry("equal opportunit", 4), Map.entry("how to apply", 4)),
+            Document.RESUME, List.of(
+                    Map.entry("experience", 0), Map.entry("employment", 0), Map.entry("work history", 0),
+                    Map.entry("skills", 0), Map.entry("competenc", 0),
+                    Map.entry("project", 1), Map.entry("summary", 1), Map.entry("profile", 1),
+                    Map.entry("achievement", 1),
+                    Map.entry("education", 2), Map.entry("certification", 2), Map.entry("publication", 2),
+                    Map.entry("interest", 4), Map.entry("hobbies", 4), Map.entry("reference", 4),
+                    Map.entry("volunteer", 3), Map.entry("language", 3)));
+
+    private final AnalysisProperties.Prompt settings;
+    // Model names come from requests, so the tokenizers are kept in a bounded cache
+    private final Cache<String, OpenAiTokenizer> openAiTokenizers = Caffeine.newBuilder().maximumSize(32).build();
+
+    public PromptCompactor(AnalysisProperties analysisProperties) {
+        this.settings = analysisProperties.getPrompt();
+    }
+
+    public CompactedInput compact(String provider, String model, String resumeText, String jobDescriptionText) {
+        ToIntFunction<String> tokens = tokenCounter(provider, model);
+        String resume = resumeText != null ? resumeText : "";
+        String job = jobDescriptionText != null ? jobDescriptionText : "";
+        int resumeBefore = tokens.applyAsInt(resume);
+        int jobBefore = tokens.applyAsInt(job);
+        if (!settings.isCompaction()) {
+            return new CompactedInput(resume, job, resumeBefore, resumeBefore, jobBefore, jobBefore);
+        }
+
+        String compactResume = compact(Document.RESUME, resume, settings.getResumeMaxTokens(), tokens);
+        String compactJob = compact(Document.JOB_DESCRIPTION, job, settings.getJobDescriptionMaxTokens(), tokens);
+        return new CompactedInput(compactResume, compactJob,
+                resumeBefore, tokens.applyAsInt(compactResume), jobBefore, tokens.applyAsInt(compactJob));
+    }
+
+    private String compact(Document document, String text, int maxTokens, ToIntFunction<String> tokens) {
+        List<Section> sections = sections(document, cleanLines(document, text));
+        String cleaned = render(sections, null);
+        if (tokens.applyAsInt(cleaned) <= maxTokens) {
+            return cleaned;
+        }
+
+        // Over budget: admit whole sections by priority, then cut the first one that no longer fits
+        List<List<String>> kept = new ArrayList<>(sections.size());
+        sections.forEach(section -> kept.add(new ArrayList<>()));
+        int remaining = maxTokens;
+        for (int priority = 0; priority <= LOWEST_PRIORITY && remaining > 0; priority++) {
+            for (int i = 0; i < sections.size() && remaining > 0; i++) {
+                Section section = sections.get(i);
+                if (section.priority() != priority) {
+                    continue;
+                }
+                for (String line : section.lines()) {
+                    int cost = tokens.applyAsInt(line) + 1; // + newline
+                    if (cost > remaining) {
+                        String cut = truncate(line, remaining - 1, cost - 1);
+                        if (!cut.isEmpty()) {
+                            kept.get(i).add(cut);
+                        }
+                        remaining = 0;
+                        break;
+                    }
+                    kept.get(i).add(line);
+                    remaining -= cost;
+                }
+            }
+        }
+        return render(sections, kept);
+    }
+
+    /**
+     * Cuts an over-long line (a page scraped without line breaks) at a word boundary,
+     * assuming tokens are spread evenly over its characters.
+     */
+    private String truncate(String line, int maxTokens, int lineTokens) {
+        if (maxTokens <= 0 || lineTokens <= 0) {
+            return "";
+        }
+        int end = (int) ((long) line.length() * maxTokens / lineTokens);
+        int space = line.lastIndexOf(' ', end);
+        return line.substring(0, space > 0 ? space : end).strip();
+    }
+
+    /**
+     * Trims and collapses whitespace per line and drops short boilerplate lines. Scraped
+     * pages also lose repeated lines (navigation and footers rendered twice); a resume may
+     * legitimately repeat a job title.
+     */
+    private List<String> cleanLines(Document document, String text) {
+        List<String> lines = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String raw : text.split("\\R")) {
+            String line = collapseWhitespace(raw);
+            if (line.isEmpty() || isBoilerplate(line)) {
+                continue;
+            }
+            if (document == Document.JOB_DESCRIPTION && line.length() > 3 && !seen.add(line.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private List<Section> sections(Document document, List<String> lines) {
+        List<Section> sections = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int priority = document == Document.RESUME ? 1 : 2; // Untitled lead-in
+        for (String line : lines) {
+            Integer headingPriority = headingPriority(document, line);
+            if (headingPriority != null && !current.isEmpty()) {
+                sections.add(new Section(priority, current));
+                current = new ArrayList<>();
+            }
+            if (headingPriority != null) {
+                priority = headingPriority;
+            }
+            current.add(line);
+        }
+        if (!current.isEmpty()) {
+            sections.add(new Section(priority, current));
+        }
+        return sections;
+    }
+
+    /**
+     * Priority of the section a heading line opens, or null for ordinary lines. A heading is
+     * a short line that ends in a colon, is written in capitals or has only a few words;
+     * bullets and sentences never are.
+     */
+    private Integer headingPriority(Document document, String line) {
+        if (line.length() > MAX_HEADING_LENGTH || BULLETS.indexOf(line.charAt(0)) >= 0 || line.endsWith(".")) {
+            return null;
+        }
+        String lower = line.toLowerCase(Locale.ROOT);
+        boolean marked = line.endsWith(":")
+                || (line.length() > 3 && line.equals(line.toUpperCase(Locale.ROOT)) && !line.equals(lower));
+        if (!marked && line.split(" ").length > MAX_HEADING_WORDS) {
+            return null;
+        }
+        for (Map.Entry<String, Integer> heading : HEADINGS.get(document)) {
+            if (lower.contains(heading.getKey())) {
+                return heading.getValue();
+            }
+        }
+        return marked ? 2 : null; // Unknown heading
+    }
+
+    /**
+     * Joins the kept lines of each section in document order; {@code kept == null} keeps all.
+     */
+    private String render(List<Section> sections, List<List<String>> kept) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < sections.size(); i++) {
+            List<String> lines = kept != null ? kept.get(i) : sections.get(i).lines();
+            for (String line : lines) {
+                out.append(line).append('\n');
+            }
+        }
+        return out.toString().strip();
+    }
+
+    private boolean isBoilerplate(String line) {
+        if (line.length() > MAX_BOILERPLATE_LINE_LENGTH) {
+            return false;
+        }
+        String lower = line.toLowerCase(Locale.ROOT);
+        for (String phrase : BOILERPLATE) {
+            for (int at = lower.indexOf(phrase); at >= 0; at = lower.indexOf(phrase, at + 1)) {
+                // Whole words only: "design in" is not "sign in", nor is "log ingestion" "log in"
+                if (!isLetterAt(lower, at - 1) && !isLetterAt(lower, at + phrase.length())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLetterAt(String text, int index) {
+        return index >= 0 && index < text.length() && Character.isLetter(text.charAt(index));
+    }
+
+    private String collapseWhitespace(String line) {
+        StringBuilder out = new StringBuilder(line.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = !out.isEmpty();
+            } else {
+                if (pendingSpace) {
+                    out.append(' ');
+                    pendingSpace = false;
+                }
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private ToIntFunction<String> tokenCounter(String provider, String model) {
+        if ("OPENAI".equalsIgnoreCase(provider)) {
+            OpenAiTokenizer tokenizer = openAiTokenizer(model);
+            return text -> text.isEmpty() ? 0 : tokenizer.estimateTokenCountInText(text);
+        }
+        return text -> (text.length() + GEMINI_CHARS_PER_TOKEN - 1) / GEMINI_CHARS_PER_TOKEN;
+    }
+
+    private OpenAiTokenizer openAiTokenizer(String model) {
+        String modelName = model == null || model.isEmpty() || "default".equals(model) ? DEFAULT_OPENAI_MODEL : model;
+        return openAiTokenizers.get(modelName, name -> {
+            OpenAiTokenizer tokenizer = new OpenAiTokenizer(name);
+            try {
+                tokenizer.estimateTokenCountInText("probe");
+                return tokenizer;
+            } catch (RuntimeException e) {
+                log.info("No tokenizer known for OpenAI model {}, counting with {}", name, DEFAULT_OPENAI_MODEL);
+                return new OpenAiTokenizer(DEFAULT_OPENAI_MODEL);
+            }
+        });
+    }
+}
@@ -0,0 +1,86 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.util.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Adaptive concurrency limit per provider and API key (AIMD): every successful call raises
+ * the limit by roughly one per window, every 429 halves it. Keeps us just under each
+ * key's quota instead of bursting into it and failing.
+ */
+@Service
+@Slf4j
+public class ProviderRateLimiter {
+
+    public enum Outcome { SUCCESS, THROTTLED, FAILED, UNUSED } // UNUSED: no call was made with the slot
+
+    private static final class AdaptiveLimit {
+        private double limit;
+        private int inFlight;
+        private long lastDecreaseNanos;
+
+        private AdaptiveLimit(double limit) {
+            this.limit = limit;
+        }
+    }
+
+    private final AnalysisProperties.RateLimit settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+
+    public ProviderRateLimiter(AnalysisProperties analysisProperties, MeterRegistry meterRegistry) {
+        this.settings = analysisProperties.getRateLimit();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public String keyFor(String provider, String apiKey) {
+        return (provider != null ? provider.toUpperCase() : "") + ":" + Hashing.sha256Hex(apiKey != null ? apiKey : "");
+    }
+
+    /**
+     * Takes a slot if the key is below its current limit. Callers that get false should
+     * defer the work rather than wait on a worker thread.
+     */
+    public boolean tryAcquire(String key) {
+        AdaptiveLimit state = limits.computeIfAbsent(key, k -> new AdaptiveLimit(settings.getInitialConcurrency()));
+        synchronized (state) {
+            if (state.inFlight >= Math.floor(state.limit)) {
+                return false;
+            }
+            state.inFlight++;
+            return true;
+        }
+    }
+
+    public void release(String key, Outcome outcome) {
+        AdaptiveLimit state = limits.get(key);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            state.inFlight = Math.max(0, state.inFlight - 1);
+            if (outcome == Outcome.SUCCESS) {
+                state.limit = Math.min(settings.getMaxConcurrency(), state.limit + 1.0 / state.limit);
+            } else if (outcome == Outcome.THROTTLED) {
+                // A burst of 429s from calls already in flight counts as one congestion signal
+                long now = System.nanoTime();
+                if (now - state.lastDecreaseNanos >= settings.getDecreaseCooldown().toNanos()) {
+                    state.limit = Math.max(settings.getMinConcurrency(), state.limit * settings.getBackoffRatio());
+                    state.lastDecreaseNanos = now;
+                    log.info("Provider throttled, concurrency limit for {} lowered to {}",
+                            key.substring(0, key.indexOf(':') + 9), String.format("%.2f", state.limit));
+                }
+            }
+        }
+        if (outcome == Outcome.THROTTLED) {
+            meterRegistry.counter("ai.requests.throttled", "provider",
+                    AnalysisMetrics.providerTag(key.substring(0, key.indexOf(':')))).increment();
+        }
+    }
+}
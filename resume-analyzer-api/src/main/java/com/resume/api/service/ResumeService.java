@@ -0,0 +1,284 @@
+package com.resume.api.service;
+
+import com.resume.api.config.ResumeProperties;
+import com.resume.api.entity.Resume;
+import com.resume.api.entity.ResumeFile;
+import com.resume.api.entity.ResumeStatus;
+import com.resume.api.event.ResumeExtractedEvent;
+import com.resume.api.exception.ServerBusyException;
+import com.resume.api.repository.ResumeFileRepository;
+import com.resume.api.repository.ResumeRepository;
+import com.resume.api.util.Hashing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumeService {
+
+    private record Upload(Path spool, String contentHash, boolean pdf) {
+    }
+
+    private final ResumeRepository resumeRepository;
+    private final ResumeFileRepository resumeFileRepository;
+    private final PdfExtractionService pdfExtractionService;
+    private final SearchService searchService;
+    private final ResumeProperties resumeProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    @Qualifier("resumeExtractionExecutor")
+    private final ThreadPoolTaskExecutor resumeExtractionExecutor;
+
+    // Resume IDs whose extraction is queued or running on this node
+    private final Set<UUID> extracting = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Stores an uploaded resume, or returns the stored one when the same file was uploaded
+     * before. The file is hashed while it is spooled to disk, so a duplicate costs one
+     * index lookup and never reaches PDFBox.
+     */
+    public Resume upload(MultipartFile file) throws IOException {
+        Upload upload = spool(file);
+        try {
+            Optional<Resume> existing = findDuplicate(upload, file, false);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+
+            // Assume text or docx (not impl yet) - just storing bytes as string for now if text
+            String content = upload.pdf()
+                    ? pdfExtractionService.extractTextFromPdf(upload.spool())
+                    : Files.readString(upload.spool(), StandardCharsets.UTF_8);
+
+            return save(Resume.builder()
+                    .filename(file.getOriginalFilename())
+                    .content(content)
+                    .contentHash(upload.contentHash())
+                    .build());
+        } finally {
+            Files.deleteIfExists(upload.spool());
+        }
+    }
+
+    /**
+     * Like {@link #upload}, but a PDF is only stored and comes back EXTRACTING; its text is
+     * extracted on a bounded background pool, so large documents never hold a request
+     * thread. Throws {@link ServerBusyException} when that pool's queue is full.
+     */
+    public Resume uploadAsync(MultipartFile file) throws IOException {
+        ResumeProperties.Extraction settings = resumeProperties.getExtraction();
+        if (resumeExtractionExecutor.getThreadPoolExecutor().getQueue().remainingCapacity() == 0) {
+            throw new ServerBusyException("Too many resumes are being processed, try again later",
+                    settings.getRetryAfter());
+        }
+
+        Upload upload = spool(file);
+        try {
+            Optional<Resume> existing = findDuplicate(upload, file, true);
+            if (existing.isPresent()) {
+                return existing.get();
+            }
+            if (!upload.pdf()) {
+                return save(Resume.builder()
+                        .filename(file.getOriginalFilename())
+                        .content(Files.readString(upload.spool(), StandardCharsets.UTF_8))
+                        .contentHash(upload.contentHash())
+                        .build());
+            }
+
+            Resume resume;
+            try {
+                resume = resumeRepository.save(Resume.builder()
+                        .filename(file.getOriginalFilename())
+                        .content("")
+                        .contentHash(upload.contentHash())
+                        .status(ResumeStatus.EXTRACTING)
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                // The same file was uploaded concurrently; that upload stores and extracts it
+                return resumeRepository.findByContentHash(upload.contentHash()).orElseThrow(() -> e);
+            }
+            resumeFileRepository.save(ResumeFile.builder()
+                    .resumeId(resume.getId())
+                    .data(Files.readAllBytes(upload.spool()))
+                    .build());
+
+            if (!submitExtraction(resume.getId())) {
+                resumeFileRepository.deleteById(resume.getId());
+                resumeRepository.deleteById(resume.getId());
+                throw new ServerBusyException("Too many resumes are being processed, try again later",
+                        settings.getRetryAfter());
+            }
+            log.info("Resume {} stored, extraction queued", resume.getId());
+            return resume;
+        } finally {
+            Files.deleteIfExists(upload.spool());
+        }
+    }
+
+    /**
+     * Restarts extractions that have been EXTRACTING for too long, whose node most likely
+     * went down. Finishing is conditional, so an extraction that does complete twice is
+     * only stored once.
+     */
+    @Scheduled(fixedDelayString = "${resume.extraction.recovery-interval-ms:60000}")
+    public void recoverStaleExtractions() {
+        LocalDateTime uploadedBefore = LocalDateTime.now().minus(resumeProperties.getExtraction().getStaleAfter());
+        for (UUID resumeId : resumeRepository.findExtractingIdsUploadedBefore(uploadedBefore)) {
+            if (extracting.contains(resumeId)) {
+                continue;
+            }
+            if (!submitExtraction(resumeId)) {
+                break;
+            }
+            log.info("Restarted stale extraction of resume {}", resumeId);
+        }
+    }
+
+    private boolean submitExtraction(UUID resumeId) {
+        if (!extracting.add(resumeId)) {
+            return true;
+        }
+        try {
+            resumeExtractionExecutor.execute(() -> extract(resumeId));
+            return true;
+        } catch (TaskRejectedException e) {
+            extracting.remove(resumeId);
+            log.warn("Resume extraction queue is full, cannot queue {}", resumeId);
+            return false;
+        }
+    }
+
+    private void extract(UUID resumeId) {
+        try {
+            ResumeStatus status;
+            String content = "";
+            String errorMessage = null;
+            Optional<ResumeFile> file = resumeFileRepository.findById(resumeId);
+            if (file.isEmpty()) {
+                status = ResumeStatus.FAILED;
+                errorMessage = "Uploaded file is no longer available";
+            } else {
+                Path pdf = Files.createTempFile("resume-upload-", ".pdf");
+                try {
+                    Files.write(pdf, file.get().getData());
+                    content = pdfExtractionService.extractTextFromPdf(pdf);
+                    status = ResumeStatus.READY;
+                } catch (Exception e) {
+                    log.warn("Extraction of resume {} failed: {}", resumeId, e.getMessage());
+                    status = ResumeStatus.FAILED;
+                    errorMessage = e.getMessage();
+                } finally {
+                    Files.deleteIfExists(pdf);
+                }
+            }
+
+            if (resumeRepository.finishExtraction(resumeId, content, status, errorMessage, LocalDateTime.now()) > 0) {
+                log.info("Extraction of resume {} finished: {}", resumeId, status);
+                eventPublisher.publishEvent(new ResumeExtractedEvent(resumeId, status));
+            }
+            resumeFileRepository.deleteById(resumeId);
+        } catch (Exception e) {
+            log.error("Failed to extract resume {}: {}", resumeId, e.getMessage(), e);
+        } finally {
+            extracting.remove(resumeId);
+        }
+    }
+
+    private Upload spool(MultipartFile file) throws IOException {
+        boolean pdf = file.getOriginalFilename() != null && file.getOriginalFilename().toLowerCase().endsWith(".pdf");
+        Path spool = Files.createTempFile("resume-upload-", pdf ? ".pdf" : ".txt");
+        try {
+            MessageDigest digest = Hashing.sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest);
+                 OutputStream out = Files.newOutputStream(spool)) {
+                copyWithLimit(in, out, resumeProperties.getPdf().getMaxSize().toBytes());
+            }
+            return new Upload(spool, HexFormat.of().formatHex(digest.digest()), pdf);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the stored resume for an identical upload. A match whose extraction FAILED is
+     * extracted again from this upload, so a transient failure does not stick to the file;
+     * a synchronous upload waits for that extraction, an asynchronous one gets it EXTRACTING.
+     */
+    private Optional<Resume> findDuplicate(Upload upload, MultipartFile file, boolean async) throws IOException {
+        Optional<Resume> existing = resumeRepository.findByContentHash(upload.contentHash());
+        if (existing.isEmpty() || existing.get().getStatus() != ResumeStatus.FAILED) {
+            existing.ifPresent(resume -> log.info("Upload {} matches resume {}, skipping extraction",
+                    file.getOriginalFilename(), resume.getId()));
+            return existing;
+        }
+
+        UUID resumeId = existing.get().getId();
+        if (resumeRepository.restartExtraction(resumeId) == 0) {
+            // A concurrent upload of the same file restarted it
+            return resumeRepository.findById(resumeId);
+        }
+        log.info("Upload {} matches resume {} whose extraction failed, extracting again",
+                file.getOriginalFilename(), resumeId);
+        resumeFileRepository.save(ResumeFile.builder()
+                .resumeId(resumeId)
+                .data(Files.readAllBytes(upload.spool()))
+                .build());
+        if (!async) {
+            extracting.add(resumeId);
+            extract(resumeId);
+        } else if (!submitExtraction(resumeId)) {
+            log.warn("Re-extraction of resume {} left to the recovery sweep", resumeId);
+        }
+        return resumeRepository.findById(resumeId);
+    }
+
+    private Resume save(Resume resume) {
+        try {
+            Resume saved = resumeRepository.save(resume);
+            searchService.index(saved);
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            // The same file was uploaded concurrently and won the unique index
+            return resumeRepository.findByContentHash(resume.getContentHash()).orElseThrow(() -> e);
+        }
+    }
+
+    private void copyWithLimit(InputStream in, OutputStream out, long maxBytes) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > maxBytes) {
+                throw new IllegalArgumentException("Upload exceeds the maximum size of "
+                        + resumeProperties.getPdf().getMaxSize());
+            }
+            out.write(buffer, 0, read);
+        }
+    }
+}
@@ -1,24 +1,219 @@
 package com.resume.api.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.resume.api.config.AnalysisProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
+@Slf4j
 public class ScraperService {
 
+    // Page chrome that never belongs to the posting itself
+    private static final String CHROME = "script, style, noscript, template, svg, iframe, nav, header, footer, "
+            + "aside, [role=navigation], [role=banner], [role=contentinfo], [aria-hidden=true]";
+    // Cookie banners; the loose match also hits page wrappers such as <body class="cookie-consent-given">
+    private static final String CONSENT = "[id*=cookie], [class*=cookie], [id*=consent], [class*=consent]";
+    private static final String CONTENT = "html, body, main, article, [role=main]";
+    private static final int MIN_CONTENT_LENGTH = 200;
+
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
+
+    /**
+     * Extracted text plus the validators needed to revalidate it with a conditional GET.
+     */
+    private record CachedPage(String text, String etag, String lastModified, Instant validatedAt) {
+        CachedPage revalidated() {
+            return new CachedPage(text, etag, lastModified, Instant.now());
+        }
+    }
+
+    private final Cache<String, CachedPage> pages;
+    // One fetch per URL at a time; concurrent callers wait for the same result
+    private final ConcurrentHashMap<String, CompletableFuture<CachedPage>> inFlight = new ConcurrentHashMap<>();
+    private final Duration revalidateAfter;
+    private final MeterRegistry meterRegistry;
+
+    public ScraperService(AnalysisProperties analysisProperties, MeterRegistry meterRegistry) {
+        AnalysisProperties.ScrapeCache settings = analysisProperties.getScrapeCache();
+        this.revalidateAfter = settings.getRevalidateAfter();
+        this.meterRegistry = meterRegistry;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(settings.getMaxSize())
+                .expireAfterWrite(settings.getMaxAge())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "scrape.cache");
+    }
+
     public String scrapeJobDescription(String url) throws IOException {
-        Document doc = Jsoup.connect(url)
-                .userAgent(
-                        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36")
-                .get();
+        CachedPage cached = pages.getIfPresent(url);
+        if (cached != null && cached.validatedAt().plus(revalidateAfter).isAfter(Instant.now())) {
+            return cached.text();
+        }
+
+        CompletableFuture<CachedPage> fetch = new CompletableFuture<>();
+        CompletableFuture<CachedPage> existing = inFlight.putIfAbsent(url, fetch);
+        if (existing != null) {
+            meterRegistry.counter("scrape.fetches", "outcome", "coalesced").increment();
+            return await(existing).text();
+        }
+
+        try {
+            CachedPage page = fetch(url, cached);
+            pages.put(url, page);
+            fetch.complete(page);
+            return page.text();
+        } catch (IOException | RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(url, fetch);
+        }
+    }
 
-        // Basic scraping: get title and body text. Can be improved with heuristics.
+    public String extractText(Document doc) {
         String title = doc.title();
-        String body = doc.body().text();
+        doc.select(CHROME).remove();
+        removeConsentBanners(doc);
+        Element content = mainContent(doc);
+
+        return "Title: " + title + "\n\nBody: " + blockText(content);
+    }
+
+    /**
+     * Removes cookie and consent elements unless they wrap the page's content: a page element,
+     * an ancestor of one, or a container holding most of the page's text.
+     */
+    private void removeConsentBanners(Document doc) {
+        int pageLength = doc.body().text().length();
+        for (Element banner : doc.select(CONSENT)) {
+            boolean wrapsContent = banner.is(CONTENT) || !banner.select(CONTENT).isEmpty()
+                    || banner.text().length() * 2 > pageLength;
+            if (!wrapsContent) {
+                banner.remove();
+            }
+        }
+    }
+
+    /**
+     * The element holding the posting itself: an explicit main/article element when the page
+     * has one, otherwise the container whose paragraphs and list items carry the most text
+     * (each block counts fully for its parent and half for its grandparent).
+     */
+    private Element mainContent(Document doc) {
+        Element explicit = null;
+        for (Element candidate : doc.select("main, article, [role=main]")) {
+            if (explicit == null || candidate.text().length() > explicit.text().length()) {
+                explicit = candidate;
+            }
+        }
+        if (explicit != null && explicit.text().length() >= MIN_CONTENT_LENGTH) {
+            return explicit;
+        }
+
+        Map<Element, Integer> scores = new HashMap<>();
+        for (Element block : doc.body().select("p, li, h1, h2, h3, h4, dd, td")) {
+            int length = block.ownText().length();
+            if (length < 25 || block.parent() == null) {
+                continue;
+            }
+            scores.merge(block.parent(), length, Integer::sum);
+            if (block.parent().parent() != null) {
+                scores.merge(block.parent().parent(), length / 2, Integer::sum);
+            }
+        }
+        return scores.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .filter(best -> best.getKey().text().length() >= MIN_CONTENT_LENGTH)
+                .map(Map.Entry::getKey)
+                .orElse(doc.body());
+    }
+
+    /**
+     * Text with one line per block element, so headings and bullets stay recognizable for
+     * prompt compaction ({@code Element.text()} puts everything on one line).
+     */
+    private String blockText(Element root) {
+        StringBuilder out = new StringBuilder();
+        NodeTraversor.traverse(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof TextNode textNode) {
+                    out.append(textNode.text());
+                } else if (node instanceof Element element && (element.isBlock() || element.normalName().equals("br"))) {
+                    out.append('\n');
+                    if (element.normalName().equals("li")) {
+                        out.append("- ");
+                    }
+                }
+            }
+
+            @Override
+            public void tail(Node node, int depth) {
+                if (node instanceof Element element && element.isBlock()) {
+                    out.append('\n');
+                }
+            }
+        }, root);
+        return out.toString().replaceAll("\\s*\n\\s*", "\n").strip();
+    }
+
+    private CachedPage fetch(String url, CachedPage cached) throws IOException {
+        Connection connection = Jsoup.connect(url).userAgent(USER_AGENT);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                connection.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                connection.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+
+        Connection.Response response = connection.execute();
+        if (response.statusCode() == 304 && cached != null) {
+            log.debug("Job description unchanged, reusing cached text: {}", url);
+            meterRegistry.counter("scrape.fetches", "outcome", "not_modified").increment();
+            return cached.revalidated();
+        }
+
+        meterRegistry.counter("scrape.fetches", "outcome", "downloaded").increment();
+        return new CachedPage(extractText(response.parse()), response.header("ETag"),
+                response.header("Last-Modified"), Instant.now());
+    }
 
-        return "Title: " + title + "\n\nBody: " + body;
+    private CachedPage await(CompletableFuture<CachedPage> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException(e.getCause());
+        }
     }
 }
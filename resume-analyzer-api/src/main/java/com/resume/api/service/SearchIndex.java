@@ -0,0 +1,428 @@
+package com.resume.api.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index with BM25 ranking. Documents get increasing int ordinals, so
+ * every posting list stays sorted by appending; a replaced document is tombstoned and
+ * re-added, and tombstones are compacted away once they make up half the index. Queries
+ * match documents containing all query terms. Until compaction, document frequencies
+ * include tombstoned documents, so the document count in the IDF does too.
+ */
+public final class SearchIndex {
+
+    public record Hit(UUID id, double score) {
+    }
+
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on",
+            "or", "our", "that", "the", "this", "to", "we", "will", "with", "you", "your");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private UUID[] ids = new UUID[1024];
+    private int[] lengths = new int[1024];
+    private int nextOrdinal;
+    private int liveCount;
+    private long liveLength;
+
+    /**
+     * Term counts of one document, optionally per field: a term added under a field is only
+     * found by queries on that field, e.g. {@code missing:terraform}.
+     */
+    public static final class Terms {
+        private final Map<String, Integer> counts = new HashMap<>();
+        private int length;
+
+        public Terms text(String text) {
+            return text(null, text);
+        }
+
+        public Terms text(String field, String text) {
+            for (String token : tokenize(text)) {
+                counts.merge(field != null ? field + ':' + token : token, 1, Integer::sum);
+                length++;
+            }
+            return this;
+        }
+    }
+
+    public void put(UUID id, Terms terms) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (terms.counts.isEmpty()) {
+                return;
+            }
+            int ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                lengths = Arrays.copyOf(lengths, lengths.length * 2);
+            }
+            ids[ordinal] = id;
+            lengths[ordinal] = terms.length;
+            ordinals.put(id, ordinal);
+            liveCount++;
+            liveLength += terms.length;
+            terms.counts.forEach((term, count) -> postings.computeIfAbsent(term, t -> new Postings()).add(ordinal, count));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            ordinals.clear();
+            deleted.clear();
+            Arrays.fill(ids, 0, nextOrdinal, null);
+            nextOrdinal = 0;
+            liveCount = 0;
+            liveLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents containing every term of {@code query} (within {@code field} if given),
+     * best first, skipping {@code offset} hits.
+     */
+    public Result search(String query, String field, int offset, int limit) {
+        List<String> terms = new ArrayList<>();
+        for (String token : tokenize(query)) {
+            String term = field != null ? field + ':' + token : token;
+            if (!terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        if (terms.isEmpty()) {
+            return new Result(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[terms.size()];
+            double[] idf = new double[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null) {
+                    return new Result(List.of(), 0);
+                }
+            }
+            // Drive the intersection from the rarest term
+            Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+            for (int i = 0; i < lists.length; i++) {
+                int df = lists[i].size;
+                // Counting live documents only would let df exceed it and turn the IDF negative
+                idf[i] = Math.log(1 + (nextOrdinal - df + 0.5) / (df + 0.5));
+            }
+
+            double averageLength = liveCount > 0 ? (double) liveLength / liveCount : 1;
+            int wanted = offset + limit;
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, wanted), Comparator.comparingDouble(Hit::score));
+            int[] cursors = new int[lists.length];
+            int total = 0;
+            Postings rarest = lists[0];
+            candidates:
+            for (int p = 0; p < rarest.size; p++) {
+                int ordinal = rarest.docs[p];
+                if (deleted.get(ordinal)) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                double score = idf[0] * bm25(rarest.freqs[p], norm);
+                for (int i = 1; i < lists.length; i++) {
+                    int at = lists[i].seek(ordinal, cursors[i]);
+                    cursors[i] = at;
+                    if (at == lists[i].size || lists[i].docs[at] != ordinal) {
+                        continue candidates;
+                    }
+                    score += idf[i] * bm25(lists[i].freqs[at], norm);
+                }
+                total++;
+                if (wanted > 0 && (top.size() < wanted || score > top.peek().score())) {
+                    if (top.size() == wanted) {
+                        top.poll();
+                    }
+                    top.add(new Hit(ids[ordinal], score));
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(top);
+            ranked.sort(Comparator.comparingDouble(Hit::score).reversed());
+            List<Hit> page = offset < ranked.size() ? ranked.subList(offset, ranked.size()) : List.of();
+            return new Result(List.copyOf(page), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the live documents and their postings; tombstones are left out.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            int[] remap = new int[nextOrdinal];
+            int live = 0;
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                remap[ordinal] = deleted.get(ordinal) ? -1 : live++;
+            }
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(live);
+            for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+                if (remap[ordinal] >= 0) {
+                    out.writeLong(ids[ordinal].getMostSignificantBits());
+                    out.writeLong(ids[ordinal].getLeastSignificantBits());
+                    out.writeInt(lengths[ordinal]);
+                }
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings list = entry.getValue();
+                int count = 0;
+                for (int p = 0; p < list.size; p++) {
+                    if (remap[list.docs[p]] >= 0) {
+                        count++;
+                    }
+                }
+                out.writeUTF(entry.getKey());
+                out.writeInt(count);
+                for (int p = 0; p < list.size; p++) {
+                    if (remap[list.docs[p]] >= 0) {
+                        out.writeInt(remap[list.docs[p]]);
+                        out.writeInt(list.freqs[p]);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with a snapshot written by {@link #writeTo}.
+     */
+    public void readFrom(DataInput in) throws IOException {
+        if (in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("Unsupported search index snapshot version");
+        }
+        int documents = in.readInt();
+        UUID[] readIds = new UUID[Math.max(1024, documents)];
+        int[] readLengths = new int[readIds.length];
+        Map<UUID, Integer> readOrdinals = new HashMap<>(documents * 2);
+        long totalLength = 0;
+        for (int ordinal = 0; ordinal < documents; ordinal++) {
+            readIds[ordinal] = new UUID(in.readLong(), in.readLong());
+            readLengths[ordinal] = in.readInt();
+            readOrdinals.put(readIds[ordinal], ordinal);
+            totalLength += readLengths[ordinal];
+        }
+        int termCount = in.readInt();
+        Map<String, Postings> readPostings = new HashMap<>(termCount * 2);
+        for (int t = 0; t < termCount; t++) {
+            String term = in.readUTF();
+            int size = in.readInt();
+            Postings list = new Postings(size);
+            for (int p = 0; p < size; p++) {
+                list.add(in.readInt(), in.readInt());
+            }
+            if (size > 0) {
+                readPostings.put(term, list);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            postings.putAll(readPostings);
+            ordinals.clear();
+            ordinals.putAll(readOrdinals);
+            deleted.clear();
+            ids = readIds;
+            lengths = readLengths;
+            nextOrdinal = documents;
+            liveCount = documents;
+            liveLength = totalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(UUID id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        deleted.set(ordinal);
+        liveCount--;
+        liveLength -= lengths[ordinal];
+        if (deleted.cardinality() > Math.max(1024, liveCount)) {
+            compactLocked();
+        }
+    }
+
+    /**
+     * Renumbers the live documents densely and drops tombstoned postings.
+     */
+    private void compactLocked() {
+        int[] remap = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remap[ordinal] = -1;
+                continue;
+            }
+            remap[ordinal] = live;
+            ids[live] = ids[ordinal];
+            lengths[live] = lengths[ordinal];
+            ordinals.put(ids[live], live);
+            live++;
+        }
+        Arrays.fill(ids, live, nextOrdinal, null);
+        postings.values().removeIf(list -> list.remap(remap) == 0);
+        deleted.clear();
+        nextOrdinal = live;
+    }
+
+    private static double bm25(int termFrequency, double norm) {
+        return termFrequency * (K1 + 1) / (termFrequency + norm);
+    }
+
+    /**
+     * Lower-cased tokens by the keyword scorer's rules: letters, digits, '+' and '#' form
+     * tokens ("c++", "c#") and a '.' joins when a letter or digit follows ("node.js").
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        int end = text.length();
+        for (int i = 0; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : ' ';
+            boolean tokenChar = Character.isLetterOrDigit(c) || c == '+' || c == '#'
+                    || (c == '.' && !token.isEmpty() && i + 1 < end && Character.isLetterOrDigit(text.charAt(i + 1)));
+            if (tokenChar) {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                String value = token.toString();
+                if (!STOP_WORDS.contains(value) && value.length() <= 40) {
+                    tokens.add(value);
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Ordinals (ascending) and term frequencies of the documents containing one term.
+     */
+    private static final class Postings {
+        private int[] docs;
+        private int[] freqs;
+        private int size;
+
+        private Postings() {
+            this(4);
+        }
+
+        private Postings(int capacity) {
+            docs = new int[Math.max(1, capacity)];
+            freqs = new int[docs.length];
+        }
+
+        private void add(int ordinal, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = ordinal;
+            freqs[size] = frequency;
+            size++;
+        }
+
+        /**
+         * First position at or after {@code from} whose ordinal is not below {@code ordinal},
+         * by galloping then binary search; {@code size} if there is none.
+         */
+        private int seek(int ordinal, int from) {
+            int step = 1;
+            int high = from;
+            while (high < size && docs[high] < ordinal) {
+                from = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int low = from;
+            high = Math.min(high, size - 1);
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < ordinal) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        private int remap(int[] remap) {
+            int kept = 0;
+            for (int p = 0; p < size; p++) {
+                int ordinal = remap[docs[p]];
+                if (ordinal >= 0) {
+                    docs[kept] = ordinal;
+                    freqs[kept] = freqs[p];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
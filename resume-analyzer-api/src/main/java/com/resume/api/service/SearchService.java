@@ -0,0 +1,292 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.dto.AnalysisSummary;
+import com.resume.api.dto.CursorPage;
+import com.resume.api.dto.ResumeSummary;
+import com.resume.api.dto.SearchPage;
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.entity.Resume;
+import com.resume.api.entity.ResumeStatus;
+import com.resume.api.event.ResumeExtractedEvent;
+import com.resume.api.repository.JobAnalysisRepository;
+import com.resume.api.repository.ResumeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-text search over resumes and completed analyses, answered from in-memory inverted
+ * indexes instead of LIKE scans. The indexes are updated as resumes are stored and analyses
+ * complete on this node, catch up on a schedule with what other nodes stored or completed,
+ * are rebuilt from the database on startup, and optionally snapshotted to disk so a restart
+ * only re-reads what changed since the last snapshot.
+ */
+@Service
+@Slf4j
+public class SearchService {
+
+    /** Analysis fields a search can be narrowed to. */
+    public static final Set<String> ANALYSIS_FIELDS = Set.of("missing", "matching");
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+    // Catch-up re-reads this far before its watermark: rows are stamped before their transaction
+    // commits, and on other nodes' clocks. Indexing a row twice is harmless.
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(1);
+
+    private final ResumeRepository resumeRepository;
+    private final JobAnalysisRepository jobAnalysisRepository;
+    private final AnalysisResultStore analysisResultStore;
+    private final AnalysisProperties.Search settings;
+    private final SearchIndex resumes = new SearchIndex();
+    private final SearchIndex analyses = new SearchIndex();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // Everything changed before this is indexed; null until the startup load has run
+    private volatile LocalDateTime indexedUntil;
+
+    public SearchService(ResumeRepository resumeRepository, JobAnalysisRepository jobAnalysisRepository,
+                         AnalysisResultStore analysisResultStore, AnalysisProperties analysisProperties) {
+        this.resumeRepository = resumeRepository;
+        this.jobAnalysisRepository = jobAnalysisRepository;
+        this.analysisResultStore = analysisResultStore;
+        this.settings = analysisProperties.getSearch();
+    }
+
+    public void index(Resume resume) {
+        if (resume.getStatus() == ResumeStatus.EXTRACTING || resume.getStatus() == ResumeStatus.FAILED) {
+            return;
+        }
+        resumes.put(resume.getId(), new SearchIndex.Terms()
+                .text(resume.getFilename())
+                .text(resume.getContent()));
+        dirty.set(true);
+    }
+
+    /**
+     * Indexes a COMPLETE analysis: its job description (the scraped page for a URL input)
+     * and both keyword lists, which are also searchable on their own as the {@code missing}
+     * and {@code matching} fields.
+     */
+    public void index(JobAnalysis analysis) {
+        if (analysis.getStatus() != AnalysisStatus.COMPLETE) {
+            return;
+        }
+        SearchIndex.Terms terms = new SearchIndex.Terms()
+                .text(analysis.getJobTitle())
+                .text(analysis.getCompanyName())
+                .text(jobDescriptionOf(analysis));
+        for (String missing : new String[] {analysis.getMissingKeywords(), analysis.getKeywordGaps()}) {
+            terms.text(missing).text("missing", missing);
+        }
+        for (String matching : new String[] {analysis.getMatchingKeywords(), analysis.getKeywordMatches()}) {
+            terms.text(matching).text("matching", matching);
+        }
+        analyses.put(analysis.getId(), terms);
+        dirty.set(true);
+    }
+
+    @EventListener
+    public void onResumeExtracted(ResumeExtractedEvent event) {
+        if (event.status() == ResumeStatus.READY) {
+            resumeRepository.findById(event.resumeId()).ifPresent(this::index);
+        }
+    }
+
+    public SearchPage<ResumeSummary> searchResumes(String query, int page, int limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        SearchIndex.Result result = resumes.search(query, null, offset(page, pageSize), pageSize);
+        return toPage(result, page, pageSize, resumeRepository::findSummariesByIds, ResumeSummary::id);
+    }
+
+    /**
+     * @param field {@code missing} or {@code matching} to search only that keyword list,
+     *              null to search everything indexed for an analysis
+     */
+    public SearchPage<AnalysisSummary> searchAnalyses(String query, String field, int page, int limit) {
+        if (field != null && !ANALYSIS_FIELDS.contains(field)) {
+            throw new IllegalArgumentException("Unknown search field: " + field + ", expected one of " + ANALYSIS_FIELDS);
+        }
+        int pageSize = CursorPage.clampLimit(limit);
+        SearchIndex.Result result = analyses.search(query, field, offset(page, pageSize), pageSize);
+        return toPage(result, page, pageSize, jobAnalysisRepository::findSummariesByIds, AnalysisSummary::id);
+    }
+
+    /**
+     * Loads the snapshot if there is one and indexes what changed after it was taken;
+     * otherwise indexes everything.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        LocalDateTime loadedAt = LocalDateTime.now();
+        LocalDateTime since = readSnapshot();
+        if (since == null) {
+            forEach(resumeRepository::findAllBy, this::index);
+            forEach(pageable -> jobAnalysisRepository.findByStatus(AnalysisStatus.COMPLETE, pageable), this::index);
+        } else {
+            indexChangedAfter(since);
+        }
+        indexedUntil = loadedAt;
+        log.info("Search indexes ready in {} ms: {} resumes, {} analyses",
+                (System.nanoTime() - started) / 1_000_000, resumes.size(), analyses.size());
+    }
+
+    /**
+     * Indexes resumes and analyses changed since the last catch-up, on whichever node they
+     * were stored or completed; this node's own changes are already indexed.
+     */
+    @Scheduled(fixedDelayString = "${analysis.search.catch-up-interval-ms:30000}")
+    public void catchUp() {
+        LocalDateTime since = indexedUntil;
+        if (since == null) {
+            return;
+        }
+        LocalDateTime caughtUpAt = LocalDateTime.now();
+        indexChangedAfter(since.minus(CATCH_UP_OVERLAP));
+        indexedUntil = caughtUpAt;
+    }
+
+    private void indexChangedAfter(LocalDateTime since) {
+        // A resume uploaded before then may have finished extracting after it
+        forEach(pageable -> resumeRepository.findChangedAfter(since, pageable), this::index);
+        forEach(pageable -> jobAnalysisRepository.findByStatusAndUpdatedAtAfter(
+                AnalysisStatus.COMPLETE, since, pageable), this::index);
+    }
+
+    @Scheduled(fixedDelayString = "${analysis.search.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        if (settings.getSnapshotPath() == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        writeSnapshot();
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    /**
+     * Returns when the snapshot was taken, or null when there is none to use.
+     */
+    private LocalDateTime readSnapshot() {
+        if (settings.getSnapshotPath() == null) {
+            return null;
+        }
+        Path path = Path.of(settings.getSnapshotPath());
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path))))) {
+            LocalDateTime takenAt = LocalDateTime.parse(in.readUTF());
+            resumes.readFrom(in);
+            analyses.readFrom(in);
+            return takenAt;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Search index snapshot {} is unusable, rebuilding: {}", path, e.getMessage());
+            resumes.clear();
+            analyses.clear();
+            return null;
+        }
+    }
+
+    private void writeSnapshot() {
+        Path path = Path.of(settings.getSnapshotPath());
+        // Written before reading the indexes: whatever changes meanwhile is re-indexed on load
+        LocalDateTime takenAt = LocalDateTime.now();
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, "search-index-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeUTF(takenAt.toString());
+                resumes.writeTo(out);
+                analyses.writeTo(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Search index snapshot written to {}", path);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Could not write search index snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * The entry of a URL input is only the URL; what was analyzed is the page scraped from it,
+     * kept with the result. Falls back to the entry when the page could not be scraped.
+     */
+    private String jobDescriptionOf(JobAnalysis analysis) {
+        if (analysis.getJobDescriptionText() != null) {
+            return analysis.getJobDescriptionText();
+        }
+        String entry = analysis.getJobDescriptionEntry();
+        if (entry != null && (entry.startsWith("http://") || entry.startsWith("https://"))) {
+            return analysisResultStore.loadJobDescription(analysis.getId()).orElse(entry);
+        }
+        return entry;
+    }
+
+    private <T> void forEach(Function<Pageable, Slice<T>> query, Consumer<T> action) {
+        Pageable pageable = PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id"));
+        Slice<T> slice;
+        do {
+            slice = query.apply(pageable);
+            slice.forEach(action);
+            pageable = slice.nextPageable();
+        } while (slice.hasNext());
+    }
+
+    private int offset(int page, int pageSize) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        return Math.multiplyExact(page, pageSize);
+    }
+
+    /**
+     * Loads the summaries of one page of hits by primary key and keeps the ranking order.
+     */
+    private <T> SearchPage<T> toPage(SearchIndex.Result result, int page, int pageSize,
+                                     Function<Collection<UUID>, List<T>> summaries, Function<T, UUID> idOf) {
+        if (result.hits().isEmpty()) {
+            return new SearchPage<>(List.of(), result.total(), page, pageSize);
+        }
+        Map<UUID, T> byId = summaries.apply(result.hits().stream().map(SearchIndex.Hit::id).toList()).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        List<SearchPage.Hit<T>> items = result.hits().stream()
+                .filter(hit -> byId.containsKey(hit.id()))
+                .map(hit -> new SearchPage.Hit<>(byId.get(hit.id()), hit.score()))
+                .toList();
+        return new SearchPage<>(items, result.total(), page, pageSize);
+    }
+}
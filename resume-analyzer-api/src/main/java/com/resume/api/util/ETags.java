@@ -0,0 +1,19 @@
+package com.resume.api.util;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Strong entity tag over the parts that version a representation, e.g. a row's ID and
+     * its last update. Hashed, so the tag does not expose them.
+     */
+    public static String of(Object... parts) {
+        String version = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("|"));
+        return "\"" + Hashing.sha256Hex(version).substring(0, 32) + "\"";
+    }
+}
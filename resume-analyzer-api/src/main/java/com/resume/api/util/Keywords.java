@@ -0,0 +1,30 @@
+package com.resume.api.util;
+
+import java.util.List;
+
+public final class Keywords {
+
+    private Keywords() {
+    }
+
+    /**
+     * Comma-separated keywords for a bounded column; keywords that would overflow
+     * {@code maxLength} are left out.
+     */
+    public static String join(List<String> keywords, int maxLength) {
+        StringBuilder joined = new StringBuilder();
+        for (String keyword : keywords) {
+            if (keyword == null || keyword.isBlank() || keyword.indexOf(',') >= 0) {
+                continue;
+            }
+            if (joined.length() + keyword.length() + 1 > maxLength) {
+                break;
+            }
+            if (!joined.isEmpty()) {
+                joined.append(',');
+            }
+            joined.append(keyword.strip());
+        }
+        return joined.toString();
+    }
+}
@@ -0,0 +1,68 @@
+package com.resume.api.controller;
+
+import com.resume.api.dto.ResumeSummary;
+import com.resume.api.entity.Resume;
+import com.resume.api.repository.ResumeRepository;
+import com.resume.api.service.ResumeService;
+import com.resume.api.service.SearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ResumeControllerTest {
+
+    private final ResumeRepository resumeRepository = mock(ResumeRepository.class);
+    private final Resume resume = Resume.builder().id(UUID.randomUUID()).filename("resume.txt").content("Java").build();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new ResumeController(resumeRepository, mock(ResumeService.class), mock(SearchService.class))).build();
+        when(resumeRepository.findSummaryById(resume.getId())).thenReturn(Optional.of(
+                new ResumeSummary(resume.getId(), resume.getFilename(), resume.getStatus(), LocalDateTime.now())));
+        when(resumeRepository.findById(resume.getId())).thenReturn(Optional.of(resume));
+    }
+
+    @Test
+    void sendsASingleETagWithTheResume() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/resumes/{id}", resume.getId()))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(result.getResponse().getHeaders(HttpHeaders.ETAG)).hasSize(1);
+        assertThat(result.getResponse().getContentAsString()).contains("resume.txt");
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWith304WithoutReadingTheResume() throws Exception {
+        String etag = mockMvc.perform(get("/api/resumes/{id}", resume.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/resumes/{id}", resume.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // Only the first GET read the full row
+        verify(resumeRepository, times(1)).findById(resume.getId());
+    }
+
+    @Test
+    void answers404ForAnUnknownResume() throws Exception {
+        mockMvc.perform(get("/api/resumes/{id}", UUID.randomUUID()))
+                .andExpect(status().isNotFound());
+    }
+}
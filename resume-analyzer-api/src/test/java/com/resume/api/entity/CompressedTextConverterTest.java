@@ -0,0 +1,63 @@
+package com.resume.api.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedTextConverterTest {
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void roundTripsText() {
+        for (String text : new String[] {"", "a", "Résumé — 日本語 ✓", "{\"atsScore\": 82}"}) {
+            assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(text))).isEqualTo(text);
+        }
+    }
+
+    @Test
+    void roundTripsTextLargerThanTheBuffer() {
+        // Random letters barely compress, so both directions need several buffer passes
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            text.append((char) ('a' + random.nextInt(26)));
+        }
+
+        byte[] compressed = converter.convertToDatabaseColumn(text.toString());
+
+        assertThat(compressed.length).isGreaterThan(8192);
+        assertThat(converter.convertToEntityAttribute(compressed)).isEqualTo(text.toString());
+    }
+
+    @Test
+    void shrinksRepetitiveJson() {
+        String json = "{\"keyword\": \"kubernetes\", \"present\": false},".repeat(200);
+
+        assertThat(converter.convertToDatabaseColumn(json).length)
+                .isLessThan(json.getBytes(StandardCharsets.UTF_8).length / 10);
+    }
+
+    @Test
+    void keepsNull() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void rejectsTruncatedOrCorruptValues() {
+        byte[] compressed = converter.convertToDatabaseColumn("{\"summary\": \"" + "x".repeat(500) + "\"}");
+
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(Arrays.copyOf(compressed, compressed.length / 2)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Truncated");
+        assertThatThrownBy(() -> converter.convertToEntityAttribute("not deflate".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Corrupt");
+    }
+}
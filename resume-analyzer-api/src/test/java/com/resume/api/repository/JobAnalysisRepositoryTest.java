@@ -0,0 +1,233 @@
+package com.resume.api.repository;
+
+import com.resume.api.entity.AnalysisPriority;
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.entity.Resume;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class JobAnalysisRepositoryTest {
+
+    private static final String NODE = "node-a";
+    private static final String OTHER_NODE = "node-b";
+
+    @Autowired
+    private JobAnalysisRepository jobAnalysisRepository;
+
+    @Autowired
+    private ResumeRepository resumeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Resume resume;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        resume = resumeRepository.save(Resume.builder().filename("resume.txt").content("Java").build());
+        now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS); // Within every database's timestamp precision
+    }
+
+    @Test
+    void claimTakesAPendingAnalysisOnce() {
+        UUID id = pending().getId();
+
+        assertThat(jobAnalysisRepository.claim(id, NODE, now.plusMinutes(2), now)).isEqualTo(1);
+        assertThat(jobAnalysisRepository.claim(id, OTHER_NODE, now.plusMinutes(2), now)).isZero();
+
+        JobAnalysis claimed = reload(id);
+        assertThat(claimed.getStatus()).isEqualTo(AnalysisStatus.PROCESSING);
+        assertThat(claimed.getLeaseOwner()).isEqualTo(NODE);
+        assertThat(claimed.getLeaseExpiresAt()).isEqualTo(now.plusMinutes(2));
+        assertThat(jobAnalysisRepository.holdsLease(id, NODE)).isTrue();
+        assertThat(jobAnalysisRepository.holdsLease(id, OTHER_NODE)).isFalse();
+    }
+
+    @Test
+    void renewLeasesExtendsOnlyTheOwnersLeases() {
+        UUID mine = claimed(NODE, now.plusMinutes(2));
+        UUID theirs = claimed(OTHER_NODE, now.plusMinutes(2));
+
+        assertThat(jobAnalysisRepository.renewLeases(List.of(mine, theirs), NODE, now.plusMinutes(5))).isEqualTo(1);
+
+        assertThat(reload(mine).getLeaseExpiresAt()).isEqualTo(now.plusMinutes(5));
+        assertThat(reload(theirs).getLeaseExpiresAt()).isEqualTo(now.plusMinutes(2));
+    }
+
+    @Test
+    void reclaimExpiredReturnsLapsedAndLeaselessStaleRowsToPending() {
+        UUID expired = claimed(NODE, now.minusSeconds(1));
+        UUID live = claimed(NODE, now.plusMinutes(2));
+        UUID legacy = save(JobAnalysis.builder().resume(resume).status(AnalysisStatus.PROCESSING)
+                .updatedAt(now.minusHours(1)).build()).getId();
+
+        assertThat(jobAnalysisRepository.reclaimExpired(now, now.minusMinutes(2))).isEqualTo(2);
+
+        assertThat(reload(expired).getStatus()).isEqualTo(AnalysisStatus.PENDING);
+        assertThat(reload(expired).getLeaseOwner()).isNull();
+        assertThat(reload(legacy).getStatus()).isEqualTo(AnalysisStatus.PENDING);
+        assertThat(reload(live).getStatus()).isEqualTo(AnalysisStatus.PROCESSING);
+    }
+
+    @Test
+    void releaseLeaseOnlyByTheOwner() {
+        UUID id = claimed(NODE, now.plusMinutes(2));
+
+        assertThat(jobAnalysisRepository.releaseLease(id, OTHER_NODE, now)).isZero();
+        assertThat(jobAnalysisRepository.releaseLease(id, NODE, now)).isEqualTo(1);
+        assertThat(reload(id).getStatus()).isEqualTo(AnalysisStatus.PENDING);
+    }
+
+    @Test
+    void ownedWritesApplyWhileTheLeaseIsHeld() {
+        UUID requeued = claimed(NODE, now.plusMinutes(2));
+        UUID failed = claimed(NODE, now.plusMinutes(2));
+        UUID completed = claimed(NODE, now.plusMinutes(2));
+
+        assertThat(jobAnalysisRepository.requeueOwned(requeued, NODE, 1, now.plusSeconds(4), now)).isEqualTo(1);
+        assertThat(jobAnalysisRepository.failOwned(failed, NODE, "boom", now)).isEqualTo(1);
+        assertThat(jobAnalysisRepository.completeOwned(completed, NODE, 80, 70, "8/10", "High",
+                "java", "kubernetes", now)).isEqualTo(1);
+
+        assertThat(reload(requeued).getStatus()).isEqualTo(AnalysisStatus.PENDING);
+        assertThat(reload(requeued).getRetryCount()).isEqualTo(1);
+        assertThat(reload(requeued).getNextAttemptAt()).isEqualTo(now.plusSeconds(4));
+        assertThat(reload(failed).getStatus()).isEqualTo(AnalysisStatus.ERROR);
+        assertThat(reload(failed).getErrorMessage()).isEqualTo("boom");
+        JobAnalysis complete = reload(completed);
+        assertThat(complete.getStatus()).isEqualTo(AnalysisStatus.COMPLETE);
+        assertThat(complete.getAtsScore()).isEqualTo(80);
+        assertThat(complete.getMissingKeywords()).isEqualTo("kubernetes");
+        assertThat(complete.getLeaseOwner()).isNull();
+    }
+
+    @Test
+    void ownedWritesLeaveAnAnalysisTakenOverByAnotherNodeAlone() {
+        UUID id = claimed(NODE, now.minusSeconds(1));
+        jobAnalysisRepository.reclaimExpired(now, now.minusMinutes(2));
+        jobAnalysisRepository.claim(id, OTHER_NODE, now.plusMinutes(2), now);
+
+        assertThat(jobAnalysisRepository.requeueOwned(id, NODE, 1, now, now)).isZero();
+        assertThat(jobAnalysisRepository.failOwned(id, NODE, "late", now)).isZero();
+        assertThat(jobAnalysisRepository.completeOwned(id, NODE, 10, 10, null, null, null, null, now)).isZero();
+
+        JobAnalysis row = reload(id);
+        assertThat(row.getStatus()).isEqualTo(AnalysisStatus.PROCESSING);
+        assertThat(row.getLeaseOwner()).isEqualTo(OTHER_NODE);
+        assertThat(row.getErrorMessage()).isNull();
+    }
+
+    @Test
+    void markStartedStampsOnlyTheFirstStart() {
+        UUID id = claimed(NODE, now.plusMinutes(2));
+
+        assertThat(jobAnalysisRepository.markStarted(id, now)).isEqualTo(1);
+        jobAnalysisRepository.requeueOwned(id, NODE, 0, now, now);
+        jobAnalysisRepository.claim(id, OTHER_NODE, now.plusMinutes(2), now);
+        assertThat(jobAnalysisRepository.markStarted(id, now.plusMinutes(1))).isZero();
+
+        assertThat(reload(id).getStartedAt()).isEqualTo(now);
+    }
+
+    @Test
+    void lockPendingIdsSkipsRowsNoLongerPending() {
+        UUID pending = pending().getId();
+        UUID taken = claimed(NODE, now.plusMinutes(2));
+
+        assertThat(jobAnalysisRepository.lockPendingIds(List.of(pending, taken))).containsExactly(pending);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void lockPendingIdsSkipsRowsLockedByAnotherTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        TransactionTemplate concurrent = new TransactionTemplate(transactionManager);
+        concurrent.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Committed, so the concurrent transaction sees the rows
+        List<UUID> ids = transaction.execute(status -> List.of(pending().getId(), pending().getId()));
+        try {
+            List<UUID> seenByOtherNode = transaction.execute(status -> {
+                assertThat(jobAnalysisRepository.lockPendingIds(List.of(ids.get(0)))).containsExactly(ids.get(0));
+                // A second node's sweep, in its own transaction, while the first still holds its lock
+                return concurrent.execute(inner -> jobAnalysisRepository.lockPendingIds(ids));
+            });
+
+            assertThat(seenByOtherNode).containsExactly(ids.get(1));
+        } finally {
+            transaction.executeWithoutResult(status -> {
+                jobAnalysisRepository.deleteAllById(ids);
+                resumeRepository.delete(resume);
+            });
+        }
+    }
+
+    @Test
+    void findFairDispatchableIdsTakesTenantsRoundRobin() {
+        UUID a1 = pending("key-a", AnalysisPriority.NORMAL, now.minusMinutes(5)).getId();
+        UUID a2 = pending("key-a", AnalysisPriority.NORMAL, now.minusMinutes(4)).getId();
+        pending("key-a", AnalysisPriority.NORMAL, now.minusMinutes(3));
+        UUID aHigh = pending("key-a", AnalysisPriority.HIGH, now.minusSeconds(10)).getId();
+        UUID b1 = pending("key-b", AnalysisPriority.NORMAL, now.minusMinutes(1)).getId();
+        save(JobAnalysis.builder().resume(resume).tenant("key-c").createdAt(now.minusHours(1))
+                .nextAttemptAt(now.plusMinutes(1)).build());
+        save(JobAnalysis.builder().resume(resume).tenant("key-c").createdAt(now.minusHours(1))
+                .deadlineAt(now.minusSeconds(1)).build());
+        claimed(NODE, now.plusMinutes(2));
+
+        // First of each tenant (HIGH before older NORMAL work), then the seconds, oldest first
+        assertThat(jobAnalysisRepository.findFairDispatchableIds(now, 2, 10)).containsExactly(b1, aHigh, a1);
+        assertThat(jobAnalysisRepository.findFairDispatchableIds(now, 3, 10)).containsExactly(b1, aHigh, a1, a2);
+        assertThat(jobAnalysisRepository.findFairDispatchableIds(now, 3, 2)).containsExactly(b1, aHigh);
+    }
+
+    @Test
+    void claimAllLeasesTheLockedRows() {
+        UUID first = pending().getId();
+        UUID second = pending().getId();
+
+        List<UUID> locked = jobAnalysisRepository.lockPendingIds(List.of(first, second));
+        assertThat(jobAnalysisRepository.claimAll(locked, NODE, now.plusMinutes(2), now)).isEqualTo(2);
+
+        assertThat(reload(first).getLeaseOwner()).isEqualTo(NODE);
+        assertThat(reload(second).getStatus()).isEqualTo(AnalysisStatus.PROCESSING);
+    }
+
+    private JobAnalysis pending() {
+        return save(JobAnalysis.builder().resume(resume).build());
+    }
+
+    private JobAnalysis pending(String tenant, AnalysisPriority priority, LocalDateTime createdAt) {
+        return save(JobAnalysis.builder().resume(resume).tenant(tenant).priority(priority).createdAt(createdAt).build());
+    }
+
+    private UUID claimed(String owner, LocalDateTime leaseExpiresAt) {
+        UUID id = pending().getId();
+        jobAnalysisRepository.claim(id, owner, leaseExpiresAt, now);
+        return id;
+    }
+
+    private JobAnalysis save(JobAnalysis analysis) {
+        return jobAnalysisRepository.saveAndFlush(analysis);
+    }
+
+    private JobAnalysis reload(UUID id) {
+        return jobAnalysisRepository.findById(id).orElseThrow();
+    }
+}
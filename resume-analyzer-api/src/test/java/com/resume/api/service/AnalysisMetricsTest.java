@@ -0,0 +1,46 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.entity.JobAnalysis;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AnalysisMetrics metrics = new AnalysisMetrics(meterRegistry, null, new AnalysisProperties());
+
+    @Test
+    void tagsKnownProvidersAndListedModelsByName() {
+        metrics.stop(metrics.start(), AnalysisMetrics.Stage.LLM, analysis("openai", "gpt-4o-mini"));
+        metrics.stop(metrics.start(), AnalysisMetrics.Stage.LLM, analysis("GEMINI", null));
+
+        assertThat(meterRegistry.find("analysis.stage").tag("provider", "OPENAI").tag("model", "gpt-4o-mini").timer())
+                .isNotNull();
+        assertThat(meterRegistry.find("analysis.stage").tag("provider", "GEMINI").tag("model", "default").timer())
+                .isNotNull();
+    }
+
+    @Test
+    void collapsesRequestChosenProvidersAndModelsIntoOther() {
+        for (int i = 0; i < 50; i++) {
+            JobAnalysis analysis = analysis("provider-" + i, "model-" + UUID.randomUUID());
+            metrics.stop(metrics.start(), AnalysisMetrics.Stage.LLM, analysis);
+            metrics.prompt(analysis, 100, 25);
+        }
+
+        assertThat(meterRegistry.find("analysis.stage").timers()).hasSize(1);
+        assertThat(meterRegistry.get("analysis.stage").timer().getId().getTag("provider"))
+                .isEqualTo(AnalysisMetrics.OTHER);
+        assertThat(meterRegistry.get("analysis.stage").timer().getId().getTag("model")).isEqualTo(AnalysisMetrics.OTHER);
+        assertThat(meterRegistry.find("analysis.prompt.tokens").summaries()).hasSize(1);
+    }
+
+    private static JobAnalysis analysis(String provider, String model) {
+        return JobAnalysis.builder().providerUsed(provider).modelUsed(model).build();
+    }
+}
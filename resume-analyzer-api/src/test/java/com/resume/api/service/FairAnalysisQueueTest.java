@@ -0,0 +1,176 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.dto.AnalysisTicket;
+import com.resume.api.entity.AnalysisPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FairAnalysisQueueTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final AnalysisProperties properties = new AnalysisProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private FairAnalysisQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        properties.getScheduling().setTenantQueueLimit(20);
+        properties.getScheduling().getTenantWeights().put("key-big", 3.0);
+        queue = new FairAnalysisQueue(properties, meterRegistry,
+                new AnalysisMetrics(meterRegistry, null, properties));
+    }
+
+    @Test
+    void alternatesBetweenTenantsInsteadOfServingInArrivalOrder() {
+        for (int i = 0; i < 4; i++) {
+            offer("key-a", AnalysisPriority.NORMAL, T0.plusSeconds(i));
+        }
+        for (int i = 0; i < 4; i++) {
+            offer("key-b", AnalysisPriority.NORMAL, T0.plusMinutes(1).plusSeconds(i));
+        }
+
+        assertThat(pollTenants(8)).containsExactly("key-a", "key-b", "key-a", "key-b", "key-a", "key-b", "key-a", "key-b");
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void refusesATenantOverItsQueueLimit() {
+        properties.getScheduling().setTenantQueueLimit(2);
+
+        assertThat(offer("key-a", AnalysisPriority.NORMAL, T0)).isTrue();
+        assertThat(offer("key-a", AnalysisPriority.NORMAL, T0)).isTrue();
+        assertThat(offer("key-a", AnalysisPriority.NORMAL, T0)).isFalse();
+        assertThat(offer("key-b", AnalysisPriority.NORMAL, T0)).isTrue();
+
+        queue.poll();
+        assertThat(offer("key-a", AnalysisPriority.NORMAL, T0)).isTrue();
+    }
+
+    @Test
+    void sharesWorkersByTenantWeight() {
+        for (int i = 0; i < 8; i++) {
+            offer("key-big", AnalysisPriority.NORMAL, T0);
+            offer("key-small", AnalysisPriority.NORMAL, T0);
+        }
+
+        List<String> started = pollTenants(8);
+
+        assertThat(started).filteredOn("key-big"::equals).hasSize(6);
+        assertThat(started).filteredOn("key-small"::equals).hasSize(2);
+    }
+
+    @Test
+    void doesNotGrowATenantsShareForHighPriorityWork() {
+        for (int i = 0; i < 8; i++) {
+            offer("key-loud", AnalysisPriority.HIGH, T0.plusSeconds(i));
+            offer("key-quiet", AnalysisPriority.NORMAL, T0.plusSeconds(i));
+        }
+
+        List<String> started = pollTenants(8);
+
+        assertThat(started).filteredOn("key-loud"::equals).hasSize(4);
+        assertThat(started).filteredOn("key-quiet"::equals).hasSize(4);
+    }
+
+    @Test
+    void startsATenantsHighPriorityWorkFirstWithinItsShare() {
+        for (int i = 0; i < 3; i++) {
+            offer("key-a", AnalysisPriority.NORMAL, T0.plusSeconds(i));
+            offer("key-b", AnalysisPriority.NORMAL, T0.plusSeconds(i));
+        }
+        AnalysisTicket urgent = ticket("key-a", AnalysisPriority.HIGH, T0.plusMinutes(1), null);
+        queue.offer(urgent, false);
+
+        assertThat(queue.poll().ticket()).isEqualTo(urgent);
+        assertThat(pollTenants(4)).containsExactly("key-b", "key-a", "key-b", "key-a");
+    }
+
+    @Test
+    void ordersATenantsWorkByLaneThenDeadlineThenAge() {
+        AnalysisTicket low = ticket("key-a", AnalysisPriority.LOW, T0, null);
+        AnalysisTicket normal = ticket("key-a", AnalysisPriority.NORMAL, T0.plusSeconds(1), null);
+        AnalysisTicket high = ticket("key-a", AnalysisPriority.HIGH, T0.plusSeconds(2), null);
+        AnalysisTicket due = ticket("key-a", AnalysisPriority.NORMAL, T0.plusSeconds(3), T0.plusMinutes(5));
+        for (AnalysisTicket ticket : List.of(low, normal, high, due)) {
+            queue.offer(ticket, false);
+        }
+
+        List<AnalysisTicket> started = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            started.add(queue.poll().ticket());
+        }
+
+        assertThat(started).containsExactly(high, due, normal, low);
+    }
+
+    @Test
+    void startsALateTenantOnParInsteadOfBehindTheBacklog() {
+        for (int i = 0; i < 8; i++) {
+            offer("key-a", AnalysisPriority.NORMAL, T0.plusSeconds(i));
+        }
+        pollTenants(4);
+        for (int i = 0; i < 2; i++) {
+            offer("key-b", AnalysisPriority.NORMAL, T0.plusMinutes(1).plusSeconds(i));
+        }
+
+        assertThat(pollTenants(4)).containsExactly("key-b", "key-a", "key-b", "key-a");
+    }
+
+    @Test
+    void keepsTheClaimedFlag() {
+        AnalysisTicket ticket = ticket("key-a", AnalysisPriority.NORMAL, T0, null);
+        queue.offer(ticket, true);
+
+        FairAnalysisQueue.Entry entry = queue.poll();
+
+        assertThat(entry.ticket()).isEqualTo(ticket);
+        assertThat(entry.claimed()).isTrue();
+    }
+
+    @Test
+    void tagsQueueDepthWithConfiguredTenantsOnly() {
+        offer("key-big", AnalysisPriority.NORMAL, T0);
+        offer("key-1", AnalysisPriority.NORMAL, T0);
+        offer("key-2", AnalysisPriority.NORMAL, T0);
+        offer(null, AnalysisPriority.NORMAL, T0);
+
+        assertThat(queued("key-big")).isEqualTo(1);
+        assertThat(queued(AnalysisMetrics.OTHER_TENANTS)).isEqualTo(2);
+        assertThat(queued(AnalysisTicket.DEFAULT_TENANT)).isEqualTo(1);
+        assertThat(meterRegistry.find("analysis.tenant.queued").gauges()).hasSize(3);
+
+        pollTenants(4);
+        assertThat(queued(AnalysisMetrics.OTHER_TENANTS)).isZero();
+    }
+
+    private boolean offer(String tenant, AnalysisPriority priority, LocalDateTime createdAt) {
+        return queue.offer(ticket(tenant, priority, createdAt, null), false);
+    }
+
+    private List<String> pollTenants(int count) {
+        List<String> tenants = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tenants.add(queue.poll().ticket().tenant());
+        }
+        return tenants;
+    }
+
+    private double queued(String tag) {
+        return meterRegistry.get("analysis.tenant.queued").tag("tenant", tag).gauge().value();
+    }
+
+    private static AnalysisTicket ticket(String tenant, AnalysisPriority priority, LocalDateTime createdAt,
+                                         LocalDateTime deadlineAt) {
+        return new AnalysisTicket(UUID.randomUUID(), tenant, priority, createdAt, deadlineAt);
+    }
+}
@@ -0,0 +1,72 @@
+package com.resume.api.service;
+
+import com.resume.api.entity.JobAnalysis;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordScoringServiceTest {
+
+    private final KeywordScoringService service = new KeywordScoringService();
+
+    @Test
+    void prefersTheLongestDictionaryPhrase() {
+        KeywordScoringService.KeywordScore score = service.score("Spring", "Spring Boot and Kubernetes").orElseThrow();
+
+        assertThat(score.score()).isZero();
+        assertThat(score.matching()).isEmpty();
+        assertThat(score.missing()).containsExactly("spring boot", "kubernetes");
+    }
+
+    @Test
+    void matchesAliasesUnderTheirCanonicalName() {
+        KeywordScoringService.KeywordScore score = service.score(
+                "Kubernetes, PostgreSQL and Node.js", "k8s / Postgres / nodejs").orElseThrow();
+
+        assertThat(score.score()).isEqualTo(100);
+        assertThat(score.matching()).containsExactly("node.js", "postgresql", "kubernetes");
+    }
+
+    @Test
+    void keepsSymbolsThatAreSkillNames() {
+        KeywordScoringService.KeywordScore score = service.score(
+                "cpp, csharp, dotnet, continuous integration", "C++ and C# on .NET with CI/CD").orElseThrow();
+
+        assertThat(score.score()).isEqualTo(100);
+        assertThat(score.matching()).containsExactlyInAnyOrder("c++", "c#", ".net", "ci/cd");
+    }
+
+    @Test
+    void weighsRepeatedTermsUpToThreeMentions() {
+        KeywordScoringService.KeywordScore score = service.score(
+                "Python", "Java, Java, Java and more Java. Python.").orElseThrow();
+
+        // java weighs 3 (capped), python 1
+        assertThat(score.score()).isEqualTo(25);
+        assertThat(score.matching()).containsExactly("python");
+        assertThat(score.missing()).containsExactly("java");
+    }
+
+    @Test
+    void isEmptyWithoutDictionaryTermsInTheJob() {
+        assertThat(service.score("Java", "Friendly team, free coffee")).isEmpty();
+        assertThat(service.score("Java", null)).isEmpty();
+        assertThat(service.score(null, "Java").orElseThrow().missing()).isEqualTo(List.of("java"));
+    }
+
+    @Test
+    void appliesTheScoreToTheAnalysis() {
+        JobAnalysis analysis = new JobAnalysis();
+        service.applyTo(analysis, "Java and Docker", "Java, Docker and Terraform");
+
+        assertThat(analysis.getKeywordScore()).isEqualTo(67);
+        assertThat(analysis.getKeywordMatches()).isEqualTo("java,docker");
+        assertThat(analysis.getKeywordGaps()).isEqualTo("terraform");
+
+        JobAnalysis unscored = new JobAnalysis();
+        service.applyTo(unscored, "Java", "Friendly team");
+        assertThat(unscored.getKeywordScore()).isNull();
+    }
+}
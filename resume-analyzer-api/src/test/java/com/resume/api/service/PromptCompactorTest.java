@@ -0,0 +1,106 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PromptCompactorTest {
+
+    // GEMINI is counted as one token per four characters, so budgets are easy to reason about
+    private static final String PROVIDER = "GEMINI";
+
+    private final AnalysisProperties properties = new AnalysisProperties();
+    private final PromptCompactor compactor = new PromptCompactor(properties);
+
+    @Test
+    void dropsBoilerplateAndRepeatedLinesFromTheJobDescription() {
+        String job = "  Senior   Java\tEngineer  \nAccept all cookies\nJava and Spring\n\nJava and Spring\n© 2024 Acme";
+
+        PromptCompactor.CompactedInput input = compactor.compact(PROVIDER, null, "", job);
+
+        assertThat(input.jobDescriptionText()).isEqualTo("Senior Java Engineer\nJava and Spring");
+        assertThat(input.jobDescriptionTokensAfter()).isLessThan(input.jobDescriptionTokensBefore());
+    }
+
+    @Test
+    void keepsLinesWhereABoilerplatePhraseIsOnlyPartOfAWord() {
+        String resume = String.join("\n",
+                "Built log ingestion pipelines",
+                "Designed sign installation workflow",
+                "Shared ownership of the billing service",
+                "Empowered by data, cut churn by 10%",
+                "Cookiecutter templates for new services");
+
+        PromptCompactor.CompactedInput input = compactor.compact(PROVIDER, null, resume, resume);
+
+        assertThat(input.resumeText()).isEqualTo(resume);
+        assertThat(input.jobDescriptionText()).isEqualTo(resume);
+    }
+
+    @Test
+    void dropsBoilerplateFoundAfterAnEarlierPartialMatch() {
+        String job = "Catalog in Java\nCatalog in or log in to apply\nWe use cookies";
+
+        PromptCompactor.CompactedInput input = compactor.compact(PROVIDER, null, "", job);
+
+        assertThat(input.jobDescriptionText()).isEqualTo("Catalog in Java");
+    }
+
+    @Test
+    void keepsRepeatedLinesInTheResume() {
+        PromptCompactor.CompactedInput input = compactor.compact(PROVIDER, null,
+                "Software Engineer\nAcme\nSoftware Engineer\nGlobex", "");
+
+        assertThat(input.resumeText()).isEqualTo("Software Engineer\nAcme\nSoftware Engineer\nGlobex");
+    }
+
+    @Test
+    void dropsLeastRelevantSectionsFirstWhenOverBudget() {
+        properties.getPrompt().setJobDescriptionMaxTokens(19);
+        String job = String.join("\n",
+                "About us",
+                "We are a great company with a long history of building things people love.",
+                "Requirements:",
+                "- 5 years of Java",
+                "- Kubernetes in production",
+                "Benefits",
+                "- Free lunch every day and a gym membership for all staff members.");
+
+        PromptCompactor.CompactedInput input = compactor.compact(PROVIDER, null, "", job);
+
+        assertThat(input.jobDescriptionText()).isEqualTo("Requirements:\n- 5 years of Java\n- Kubernetes in production");
+        assertThat(input.jobDescriptionTokensAfter()).isLessThanOrEqualTo(19);
+    }
+
+    @Test
+    void cutsAnOverlongLineAtAWordBoundary() {
+        properties.getPrompt().setResumeMaxTokens(10);
+        String resume = "word ".repeat(40).strip();
+
+        PromptCompactor.CompactedInput input = compactor.compact(PROVIDER, null, resume, "");
+
+        assertThat(input.resumeText()).isEqualTo("word ".repeat(7).strip());
+        assertThat(input.resumeTokensAfter()).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void leavesTextUntouchedWhenCompactionIsOff() {
+        properties.getPrompt().setCompaction(false);
+        String job = "Accept all cookies\n  Java  ";
+
+        PromptCompactor.CompactedInput input = compactor.compact(PROVIDER, null, null, job);
+
+        assertThat(input.jobDescriptionText()).isEqualTo(job);
+        assertThat(input.resumeText()).isEmpty();
+        assertThat(input.jobDescriptionTokensAfter()).isEqualTo(input.jobDescriptionTokensBefore());
+    }
+
+    @Test
+    void countsOpenAiTokensEvenForAnUnknownModel() {
+        PromptCompactor.CompactedInput input = compactor.compact("OPENAI", "not-a-real-model",
+                "Java developer with ten years of experience", "");
+
+        assertThat(input.resumeTokensBefore()).isBetween(5, 15);
+    }
+}
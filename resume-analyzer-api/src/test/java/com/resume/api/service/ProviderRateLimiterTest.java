@@ -0,0 +1,108 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProviderRateLimiterTest {
+
+    private final AnalysisProperties properties = new AnalysisProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProviderRateLimiter limiter;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        AnalysisProperties.RateLimit settings = properties.getRateLimit();
+        settings.setInitialConcurrency(4);
+        settings.setMinConcurrency(1);
+        settings.setMaxConcurrency(8);
+        settings.setBackoffRatio(0.5);
+        settings.setDecreaseCooldown(Duration.ZERO);
+        limiter = new ProviderRateLimiter(properties, meterRegistry);
+        key = limiter.keyFor("openai", "sk-test");
+    }
+
+    @Test
+    void admitsUpToTheInitialLimit() {
+        assertThat(acquire(4)).isEqualTo(4);
+        assertThat(limiter.tryAcquire(key)).isFalse();
+
+        limiter.release(key, ProviderRateLimiter.Outcome.FAILED);
+        assertThat(limiter.tryAcquire(key)).isTrue();
+    }
+
+    @Test
+    void successesRaiseTheLimitByAboutOnePerWindow() {
+        // Each success adds 1/limit: four leave it just under 5, the fifth opens a slot
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire(key)).isTrue();
+            limiter.release(key, ProviderRateLimiter.Outcome.SUCCESS);
+        }
+        assertThat(acquire(10)).isEqualTo(4);
+        limiter.release(key, ProviderRateLimiter.Outcome.SUCCESS);
+        assertThat(acquire(10)).isEqualTo(2);
+    }
+
+    @Test
+    void throttlingHalvesTheLimit() {
+        limiter.tryAcquire(key);
+        limiter.release(key, ProviderRateLimiter.Outcome.THROTTLED);
+
+        assertThat(acquire(10)).isEqualTo(2);
+        assertThat(meterRegistry.get("ai.requests.throttled").tag("provider", "OPENAI").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void throttlesWithinTheCooldownLowerTheLimitOnce() {
+        properties.getRateLimit().setDecreaseCooldown(Duration.ofHours(1));
+        acquire(3);
+        limiter.release(key, ProviderRateLimiter.Outcome.THROTTLED);
+        limiter.release(key, ProviderRateLimiter.Outcome.THROTTLED);
+        limiter.release(key, ProviderRateLimiter.Outcome.THROTTLED);
+
+        assertThat(acquire(10)).isEqualTo(2);
+    }
+
+    @Test
+    void limitStaysWithinMinAndMax() {
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire(key);
+            limiter.release(key, ProviderRateLimiter.Outcome.THROTTLED);
+        }
+        assertThat(acquire(10)).isEqualTo(1);
+        limiter.release(key, ProviderRateLimiter.Outcome.FAILED);
+
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire(key);
+            limiter.release(key, ProviderRateLimiter.Outcome.SUCCESS);
+        }
+        assertThat(acquire(20)).isEqualTo(8);
+    }
+
+    @Test
+    void keysAreLimitedIndependently() {
+        acquire(4);
+        String otherKey = limiter.keyFor("openai", "sk-other");
+
+        assertThat(limiter.tryAcquire(key)).isFalse();
+        assertThat(limiter.tryAcquire(otherKey)).isTrue();
+        assertThat(otherKey).isNotEqualTo(key).startsWith("OPENAI:").doesNotContain("sk-other");
+    }
+
+    private int acquire(int attempts) {
+        int acquired = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire(key)) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+}
@@ -0,0 +1,41 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScraperServiceTest {
+
+    private static final String POSTING = "<h1>Senior Java Engineer</h1>"
+            + "<p>You will build and run the payment platform that moves money for millions of customers.</p>"
+            + "<ul><li>Five years of Java and Spring in production systems</li>"
+            + "<li>Hands-on experience operating Kubernetes clusters at scale</li></ul>";
+
+    private final ScraperService scraper = new ScraperService(new AnalysisProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void keepsAPostingWhoseBodyCarriesAConsentClass() {
+        String html = "<html class=\"cookie-ok\"><head><title>Job</title></head>"
+                + "<body class=\"cookie-consent-given\"><div id=\"cookie-banner\">We use cookies. Accept all</div>"
+                + "<div class=\"consent-wrapper\"><div class=\"posting\">" + POSTING + "</div></div></body></html>";
+
+        String text = scraper.extractText(Jsoup.parse(html));
+
+        assertThat(text).contains("Senior Java Engineer", "- Five years of Java", "Kubernetes clusters");
+        assertThat(text).doesNotContain("We use cookies");
+    }
+
+    @Test
+    void keepsAMainElementInsideAConsentWrapper() {
+        String html = "<body><div class=\"has-consent\"><nav>Jobs | Companies</nav><main>" + POSTING + "</main>"
+                + "<div class=\"cookie-notice\">Cookie settings</div></div></body>";
+
+        String text = scraper.extractText(Jsoup.parse(html));
+
+        assertThat(text).contains("Senior Java Engineer", "payment platform");
+        assertThat(text).doesNotContain("Cookie settings", "Companies");
+    }
+}
@@ -0,0 +1,186 @@
+package com.resume.api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    private final SearchIndex index = new SearchIndex();
+
+    @Test
+    void matchesDocumentsContainingAllTerms() {
+        UUID both = put("Java developer with Kubernetes");
+        put("Java developer");
+        put("Kubernetes operator");
+
+        SearchIndex.Result result = index.search("kubernetes JAVA", null, 0, 10);
+
+        assertThat(ids(result)).containsExactly(both);
+        assertThat(result.total()).isEqualTo(1);
+    }
+
+    @Test
+    void ranksFrequentTermsFirst() {
+        UUID once = put("java spring hibernate maven");
+        UUID twice = put("java java hibernate maven");
+
+        assertThat(ids(index.search("java", null, 0, 10))).containsExactly(twice, once);
+    }
+
+    @Test
+    void ranksShortDocumentsFirst() {
+        UUID longer = put("java spring hibernate maven");
+        UUID shorter = put("java spring");
+
+        assertThat(ids(index.search("java", null, 0, 10))).containsExactly(shorter, longer);
+    }
+
+    @Test
+    void keepsScoresPositiveWhileTombstonesRemain() {
+        UUID kept = put("java");
+        index.remove(put("java"));
+        index.remove(put("java"));
+        UUID longer = put("java spring hibernate");
+
+        SearchIndex.Result result = index.search("java", null, 0, 10);
+
+        assertThat(ids(result)).containsExactly(kept, longer);
+        assertThat(result.hits()).allSatisfy(hit -> assertThat(hit.score()).isPositive());
+    }
+
+    @Test
+    void weighsRareTermsHigher() {
+        UUID rareMatch = put("python terraform");
+        UUID commonMatch = put("python python");
+        for (int i = 0; i < 20; i++) {
+            put("python developer " + i);
+        }
+
+        // Queries require every term, so the terms are compared one query at a time
+        double rare = index.search("terraform", null, 0, 1).hits().get(0).score();
+        double common = index.search("python", null, 0, 30).hits().stream()
+                .filter(hit -> hit.id().equals(commonMatch)).findFirst().orElseThrow().score();
+        assertThat(rare).isGreaterThan(common);
+        assertThat(ids(index.search("python terraform", null, 0, 10))).containsExactly(rareMatch);
+    }
+
+    @Test
+    void fieldTermsAreOnlyFoundWithinTheirField() {
+        UUID missing = UUID.randomUUID();
+        index.put(missing, new SearchIndex.Terms().text("Platform engineer").text("missing", "Terraform"));
+        UUID mentioned = put("Terraform, platform engineer");
+
+        assertThat(ids(index.search("terraform", "missing", 0, 10))).containsExactly(missing);
+        assertThat(ids(index.search("terraform", null, 0, 10))).containsExactly(mentioned);
+        assertThat(ids(index.search("engineer", null, 0, 10))).containsExactlyInAnyOrder(missing, mentioned);
+    }
+
+    @Test
+    void replacesAndRemovesDocuments() {
+        UUID id = put("java developer");
+        index.put(id, new SearchIndex.Terms().text("rust developer"));
+
+        assertThat(index.search("java", null, 0, 10).total()).isZero();
+        assertThat(ids(index.search("rust", null, 0, 10))).containsExactly(id);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove(id);
+        assertThat(index.search("developer", null, 0, 10).total()).isZero();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void pagesThroughHitsWithTheTotalCount() {
+        List<UUID> all = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            all.add(put("golang " + "filler ".repeat(i)));
+        }
+
+        SearchIndex.Result second = index.search("golang", null, 10, 10);
+        SearchIndex.Result last = index.search("golang", null, 20, 10);
+
+        assertThat(second.total()).isEqualTo(25);
+        // Shorter documents rank first, so hits follow insertion order
+        assertThat(ids(second)).isEqualTo(all.subList(10, 20));
+        assertThat(ids(last)).isEqualTo(all.subList(20, 25));
+        assertThat(index.search("golang", null, 30, 10).hits()).isEmpty();
+    }
+
+    @Test
+    void intersectsALongPostingListWithASparseOne() {
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID id = put(i % 100 == 0 ? "common rare" : "common");
+            if (i % 100 == 0) {
+                expected.add(id);
+            }
+        }
+
+        SearchIndex.Result result = index.search("common rare", null, 0, 100);
+
+        assertThat(result.total()).isEqualTo(30);
+        assertThat(ids(result)).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void staysCorrectAfterCompactingTombstones() {
+        List<UUID> kept = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            UUID id = put("scala developer");
+            if (i % 3 == 0) {
+                kept.add(id);
+            } else {
+                index.remove(id);
+            }
+        }
+        UUID added = put("scala architect");
+
+        assertThat(index.size()).isEqualTo(kept.size() + 1);
+        assertThat(index.search("scala", null, 0, 0).total()).isEqualTo(kept.size() + 1);
+        assertThat(ids(index.search("scala developer", null, 0, 2000))).containsExactlyInAnyOrderElementsOf(kept);
+        assertThat(ids(index.search("architect", null, 0, 10))).containsExactly(added);
+    }
+
+    @Test
+    void snapshotRestoresLiveDocumentsOnly() throws IOException {
+        UUID kept = put("kotlin android");
+        UUID removed = put("kotlin backend");
+        index.remove(removed);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        SearchIndex restored = new SearchIndex();
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat(restored.size()).isEqualTo(1);
+        assertThat(ids(restored.search("kotlin", null, 0, 10))).containsExactly(kept);
+        assertThat(restored.search("backend", null, 0, 10).total()).isZero();
+    }
+
+    @Test
+    void tokenizesLikeTheKeywordScorer() {
+        assertThat(SearchIndex.tokenize("C++, C# and Node.js. The .NET team!"))
+                .containsExactly("c++", "c#", "node.js", "net", "team");
+        assertThat(index.search("the and of", null, 0, 10).total()).isZero();
+    }
+
+    private UUID put(String text) {
+        UUID id = UUID.randomUUID();
+        index.put(id, new SearchIndex.Terms().text(text));
+        return id;
+    }
+
+    private static List<UUID> ids(SearchIndex.Result result) {
+        return result.hits().stream().map(SearchIndex.Hit::id).toList();
+    }
+}
@@ -0,0 +1,89 @@
+package com.resume.api.service;
+
+import com.resume.api.config.AnalysisProperties;
+import com.resume.api.dto.AnalysisSummary;
+import com.resume.api.entity.AnalysisStatus;
+import com.resume.api.entity.JobAnalysis;
+import com.resume.api.repository.JobAnalysisRepository;
+import com.resume.api.repository.ResumeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchServiceTest {
+
+    private final ResumeRepository resumeRepository = mock(ResumeRepository.class);
+    private final JobAnalysisRepository jobAnalysisRepository = mock(JobAnalysisRepository.class);
+    private final AnalysisResultStore analysisResultStore = mock(AnalysisResultStore.class);
+    private final SearchService searchService = new SearchService(resumeRepository, jobAnalysisRepository,
+            analysisResultStore, new AnalysisProperties());
+
+    @BeforeEach
+    void setUp() {
+        when(resumeRepository.findAllBy(any())).thenReturn(new SliceImpl<>(List.of()));
+        when(resumeRepository.findChangedAfter(any(), any())).thenReturn(new SliceImpl<>(List.of()));
+        when(jobAnalysisRepository.findByStatus(eq(AnalysisStatus.COMPLETE), any())).thenReturn(new SliceImpl<>(List.of()));
+        when(jobAnalysisRepository.findByStatusAndUpdatedAtAfter(eq(AnalysisStatus.COMPLETE), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(jobAnalysisRepository.findSummariesByIds(any())).thenAnswer(invocation -> summaries(invocation.getArgument(0)));
+    }
+
+    @Test
+    void catchesUpWithAnalysesCompletedOnAnotherNode() {
+        searchService.load();
+        assertThat(searchService.searchAnalyses("terraform", null, 0, 10).total()).isZero();
+
+        JobAnalysis remote = complete("Platform engineer, Terraform and AWS");
+        when(jobAnalysisRepository.findByStatusAndUpdatedAtAfter(eq(AnalysisStatus.COMPLETE), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(remote)));
+        searchService.catchUp();
+
+        assertThat(searchService.searchAnalyses("terraform", null, 0, 10).items())
+                .extracting(hit -> hit.item().id()).containsExactly(remote.getId());
+    }
+
+    @Test
+    void doesNotCatchUpBeforeTheStartupLoad() {
+        searchService.catchUp();
+
+        assertThat(searchService.searchAnalyses("terraform", null, 0, 10).total()).isZero();
+    }
+
+    @Test
+    void indexesTheScrapedPageOfAUrlInput() {
+        JobAnalysis scraped = complete("https://jobs.example.com/42");
+        scraped.setJobDescriptionText("Site reliability engineer with Kubernetes");
+        JobAnalysis reloaded = complete("https://jobs.example.com/43");
+        when(analysisResultStore.loadJobDescription(reloaded.getId()))
+                .thenReturn(Optional.of("Data engineer with Kubernetes and Spark"));
+
+        searchService.index(scraped);
+        searchService.index(reloaded);
+
+        assertThat(searchService.searchAnalyses("kubernetes", null, 0, 10).total()).isEqualTo(2);
+        assertThat(searchService.searchAnalyses("spark", null, 0, 10).total()).isEqualTo(1);
+        assertThat(searchService.searchAnalyses("jobs.example.com", null, 0, 10).total()).isZero();
+    }
+
+    private static JobAnalysis complete(String jobDescription) {
+        return JobAnalysis.builder().id(UUID.randomUUID()).status(AnalysisStatus.COMPLETE)
+                .jobDescriptionEntry(jobDescription).build();
+    }
+
+    private static List<AnalysisSummary> summaries(Collection<UUID> ids) {
+        return ids.stream().map(id -> new AnalysisSummary(id, null, null, null, null, null, null, null, null, null,
+                AnalysisStatus.COMPLETE, null, LocalDateTime.now(), LocalDateTime.now())).toList();
+    }
+}
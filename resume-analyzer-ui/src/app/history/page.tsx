@@ -1,7 +1,7 @@
 "use client"
 
 import { useState } from "react"
-import { useQuery } from "@tanstack/react-query"
+import { useQuery, useInfiniteQuery } from "@tanstack/react-query"
 import axios from "axios"
 import { Card, CardContent, CardHeader, CardTitle, CardDescription } from "@/components/ui/card"
 import { Button } from "@/components/ui/button"
@@ -11,14 +11,13 @@ import Link from "next/link"
 
 interface JobAnalysisHistory {
     id: string
-    resume: {
-        id: string
-        filename: string
-    }
-    jobDescriptionEntry: string
-    analysisResultJson: string
+    resumeId: string
+    jobDescriptionPreview: string | null
+    status: "PENDING" | "PROCESSING" | "COMPLETE" | "ERROR"
     providerUsed: string
     modelUsed: string
+    keywordScore: number | null
+    atsScore: number | null
     createdAt: string
 }
 
@@ -27,10 +26,13 @@ export default function HistoryPage() {
 
     // optimized: fetches ALL resumes to then fetch history for each. 
     // In a real app, you'd want a single endpoint for all history.
-    const { data: resumes } = useQuery({
+    const { data: resumePages, hasNextPage: hasMoreResumes, fetchNextPage: fetchMoreResumes, isFetchingNextPage: isFetchingMoreResumes } = useInfiniteQuery({
         queryKey: ["resumes"],
-        queryFn: async () => (await axios.get("/api/resumes")).data
+        queryFn: async ({ pageParam }) => (await axios.get("/api/resumes", { params: { limit: 100, cursor: pageParam } })).data,
+        initialPageParam: undefined as string | undefined,
+        getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined
     })
+    const resumes = resumePages?.pages.flatMap((page) => page.items)
 
     // Fetch history for the first resume or all (simplified for now to just show strategy)
     // Creating a new component to fetch history by resume ID would be cleaner,
@@ -39,14 +41,23 @@ export default function HistoryPage() {
 
     const [selectedResumeId, setSelectedResumeId] = useState<string>("")
 
-    const { data: history, isLoading } = useQuery({
+    const { data: historyPages, isLoading, hasNextPage, fetchNextPage, isFetchingNextPage } = useInfiniteQuery({
         queryKey: ["history", selectedResumeId],
-        queryFn: async () => {
-            if (!selectedResumeId) return []
-            return (await axios.get(`/api/analysis/resume/${selectedResumeId}`)).data as JobAnalysisHistory[]
-        },
+        queryFn: async ({ pageParam }) => (await axios.get(`/api/analysis/resume/${selectedResumeId}`, {
+            params: { limit: 50, cursor: pageParam }
+        })).data as { items: JobAnalysisHistory[], nextCursor: string | null },
+        initialPageParam: undefined as string | undefined,
+        getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined,
         enabled: !!selectedResumeId
     })
+    const history = historyPages?.pages.flatMap((page) => page.items)
+
+    // The listing carries no result JSON; load it only for the analysis being viewed
+    const { data: selectedResult } = useQuery({
+        queryKey: ["analysis-result", selectedAnalysis?.id],
+        queryFn: async () => (await axios.get(`/api/analysis/${selectedAnalysis!.id}/result`)).data,
+        enabled: !!selectedAnalysis
+    })
 
     if (selectedAnalysis) {
         return (
@@ -62,7 +73,11 @@ export default function HistoryPage() {
                         </CardDescription>
                     </CardHeader>
                     <CardContent>
-                        <AnalysisResult result={JSON.parse(selectedAnalysis.analysisResultJson)} />
+                        {selectedResult ? (
+                            <AnalysisResult result={selectedResult} />
+                        ) : (
+                            <div className="text-center py-4">Loading analysis...</div>
+                        )}
                     </CardContent>
                 </Card>
             </div>
@@ -96,6 +111,11 @@ export default function HistoryPage() {
                             <option key={r.id} value={r.id}>{r.filename}</option>
                         ))}
                     </select>
+                    {hasMoreResumes && (
+                        <Button variant="ghost" size="sm" className="mt-2" onClick={() => fetchMoreResumes()} disabled={isFetchingMoreResumes}>
+                            {isFetchingMoreResumes ? "Loading..." : "Load older resumes"}
+                        </Button>
+                    )}
                 </CardContent>
             </Card>
 
@@ -121,17 +141,30 @@ export default function HistoryPage() {
                                     </CardHeader>
                                     <CardContent>
                                         <div className="text-sm text-muted-foreground line-clamp-3">
-                                            {item.jobDescriptionEntry.substring(0, 100)}...
+                                            {item.jobDescriptionPreview ?? ""}
                                         </div>
                                         <div className="mt-4 flex items-center gap-2 text-xs">
                                             <span className="px-2 py-1 bg-primary/10 rounded-full">{item.providerUsed}</span>
                                             <span className="px-2 py-1 bg-muted rounded-full">{item.modelUsed}</span>
+                                            {item.atsScore != null && (
+                                                <span className="px-2 py-1 bg-muted rounded-full">ATS {item.atsScore}</span>
+                                            )}
+                                            {item.keywordScore != null && (
+                                                <span className="px-2 py-1 bg-muted rounded-full">Keywords {item.keywordScore}%</span>
+                                            )}
                                         </div>
                                     </CardContent>
                                 </Card>
                             ))}
                         </div>
                     )}
+                    {hasNextPage && (
+                        <div className="flex justify-center">
+                            <Button variant="outline" onClick={() => fetchNextPage()} disabled={isFetchingNextPage}>
+                                {isFetchingNextPage ? "Loading..." : "Load more"}
+                            </Button>
+                        </div>
+                    )}
                 </div>
             )}
         </div>
@@ -1,7 +1,7 @@
 "use client"
 
 import { useState, useEffect } from "react"
-import { useQuery, useMutation } from "@tanstack/react-query"
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient } from "@tanstack/react-query"
 import type { Query } from "@tanstack/react-query"
 import axios from "axios"
 import { useApiConfig } from "@/context/ApiContext"
@@ -19,6 +19,9 @@ interface AnalysisResponse {
     status: "PENDING" | "PROCESSING" | "COMPLETE" | "ERROR"
     analysisResultJson?: string
     errorMessage?: string
+    keywordScore?: number | null
+    keywordMatches?: string | null
+    keywordGaps?: string | null
 }
 
 export function JobAnalysisDashboard({ uploadedResumeId }: { uploadedResumeId?: string }) {
@@ -29,12 +32,18 @@ export function JobAnalysisDashboard({ uploadedResumeId }: { uploadedResumeId?:
     const [showSettings, setShowSettings] = useState(false)
     const [analysisId, setAnalysisId] = useState<string | null>(null)
     const [pollingActive, setPollingActive] = useState(false)
+    // Polling is only a fallback for when the event stream cannot be opened
+    const [streamFailed, setStreamFailed] = useState(false)
+    const queryClient = useQueryClient()
 
-    // Fetch list of resumes
-    const { data: resumes } = useQuery({
+    // Fetch list of resumes, one cursor page at a time
+    const { data: resumePages, hasNextPage: hasMoreResumes, fetchNextPage: fetchMoreResumes, isFetchingNextPage: isFetchingMoreResumes } = useInfiniteQuery({
         queryKey: ["resumes"],
-        queryFn: async () => (await axios.get("/api/resumes")).data
+        queryFn: async ({ pageParam }) => (await axios.get("/api/resumes", { params: { limit: 100, cursor: pageParam } })).data,
+        initialPageParam: undefined as string | undefined,
+        getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined
     })
+    const resumes = resumePages?.pages.flatMap((page) => page.items)
 
     // Poll for analysis results when analysisId is set
     const { data: analysisResult, isLoading: isPolling } = useQuery<AnalysisResponse>({
@@ -44,7 +53,7 @@ export function JobAnalysisDashboard({ uploadedResumeId }: { uploadedResumeId?:
             const res = await axios.get(`/api/analysis/${analysisId}`)
             return res.data
         },
-        enabled: !!analysisId && pollingActive,
+        enabled: !!analysisId && pollingActive && streamFailed,
         // Use function form so we don't reference `analysisResult` before initialization
         refetchInterval: (q: Query<AnalysisResponse, Error, AnalysisResponse, readonly unknown[]>) => {
             const latestData = q.state.data as AnalysisResponse | undefined
@@ -53,6 +62,32 @@ export function JobAnalysisDashboard({ uploadedResumeId }: { uploadedResumeId?:
         refetchIntervalInBackground: true,
     })
 
+    // Push status updates over Server-Sent Events instead of polling
+    useEffect(() => {
+        if (!analysisId || !pollingActive) return
+        const source = new EventSource(`/api/analysis/${analysisId}/events`)
+        const key = ["analysis", analysisId]
+
+        source.addEventListener("status", (e) => {
+            const update = JSON.parse((e as MessageEvent).data)
+            queryClient.setQueryData<AnalysisResponse>(key, (prev) => ({ ...prev, ...update }))
+        })
+        source.addEventListener("result", (e) => {
+            const analysisResultJson = (e as MessageEvent).data
+            queryClient.setQueryData<AnalysisResponse>(key, (prev) => ({ ...prev!, status: "COMPLETE", analysisResultJson }))
+            source.close()
+        })
+        source.onerror = () => {
+            const latest = queryClient.getQueryData<AnalysisResponse>(key)
+            if (latest?.status === "COMPLETE" || latest?.status === "ERROR") {
+                source.close()
+            } else if (source.readyState === EventSource.CLOSED) {
+                setStreamFailed(true)
+            }
+        }
+        return () => source.close()
+    }, [analysisId, pollingActive, queryClient])
+
     // Update polling status based on analysis result
     useEffect(() => {
         if (analysisResult?.status === "COMPLETE" || analysisResult?.status === "ERROR") {
@@ -76,6 +111,8 @@ export function JobAnalysisDashboard({ uploadedResumeId }: { uploadedResumeId?:
             return res.data
         },
         onSuccess: (data) => {
+            queryClient.setQueryData(["analysis", data.id], data)
+            setStreamFailed(false)
             setAnalysisId(data.id)
             setPollingActive(true)
         }
@@ -173,6 +210,11 @@ export function JobAnalysisDashboard({ uploadedResumeId }: { uploadedResumeId?:
                                     <option key={r.id} value={r.id}>{r.filename} ({new Date(r.uploadDate).toLocaleDateString()})</option>
                                 ))}
                             </select>
+                            {hasMoreResumes && (
+                                <Button variant="ghost" size="sm" className="justify-self-start" onClick={() => fetchMoreResumes()} disabled={isFetchingMoreResumes}>
+                                    {isFetchingMoreResumes ? "Loading..." : "Load older resumes"}
+                                </Button>
+                            )}
                         </div>
 
                         <div className="grid gap-2">
@@ -260,6 +302,14 @@ export function JobAnalysisDashboard({ uploadedResumeId }: { uploadedResumeId?:
                                     <div className="text-sm text-blue-700">
                                         {analysisResult?.status === "PENDING" ? "Waiting to process..." : "Processing with AI..."}
                                     </div>
+                                    {analysisResult?.keywordScore != null && (
+                                        <div className="mt-2 text-sm text-blue-900">
+                                            <div className="font-medium">Keyword match: {analysisResult.keywordScore}%</div>
+                                            {analysisResult.keywordGaps && (
+                                                <div className="text-blue-700">Missing: {analysisResult.keywordGaps.split(",").join(", ")}</div>
+                                            )}
+                                        </div>
+                                    )}
                                 </div>
                             </div>
                         </CardContent>